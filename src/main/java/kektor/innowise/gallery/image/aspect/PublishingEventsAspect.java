@@ -2,6 +2,7 @@ package kektor.innowise.gallery.image.aspect;
 
 
 import kektor.innowise.gallery.image.dto.ImageDto;
+import kektor.innowise.gallery.image.dto.LikeStateDto;
 import kektor.innowise.gallery.image.mapper.ImageMapper;
 import kektor.innowise.gallery.image.msg.LikeEventMessage;
 import kektor.innowise.gallery.image.service.SecurityService;
@@ -52,4 +53,21 @@ public class PublishingEventsAspect {
         return image;
     }
 
+    @AfterReturning(
+            pointcut = "likeEventServiceTriggerMethod()",
+            returning = "likeState",
+            argNames = "likeState"
+    )
+    public LikeStateDto likeStateEventAdvice(LikeStateDto likeState) {
+        if (!likeState.changed()) {
+            return likeState;
+        }
+        var eventType = likeState.isLiked() ?
+                LikeEventMessage.EventType.LIKE :
+                LikeEventMessage.EventType.REMOVE_LIKE;
+        LikeEventMessage eventMessage = mapper.toEvent(likeState, securityService.currentUser(), eventType);
+        eventPublisher.publishEvent(eventMessage);
+        return likeState;
+    }
+
 }
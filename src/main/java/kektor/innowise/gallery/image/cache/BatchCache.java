@@ -0,0 +1,20 @@
+package kektor.innowise.gallery.image.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * {@link Cache} that can read and write many entries in a constant number of remote round trips.
+ */
+public interface BatchCache extends Cache {
+
+    /**
+     * @return cached values by the requested key; keys without a value are absent from the result
+     */
+    Map<Object, Object> getAll(Collection<?> keys);
+
+    void putAll(Map<?, ?> entries);
+
+}
@@ -0,0 +1,104 @@
+package kektor.innowise.gallery.image.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.AbstractCacheInvoker;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+public class BatchCacheInvoker extends AbstractCacheInvoker {
+
+    public BatchCacheInvoker(CacheErrorHandler errorHandler) {
+        super(errorHandler);
+    }
+
+    /**
+     * Single-key counterpart of {@link Cache#get(Object, java.util.concurrent.Callable)}: cache failures are
+     * reported to the error handler and the value is loaded directly, loader failures are rethrown unwrapped.
+     */
+    public <T> T get(Cache cache, Object key, Supplier<T> loader) {
+        try {
+            return cache.get(key, loader::get);
+        } catch (Cache.ValueRetrievalException e) {
+            ReflectionUtils.rethrowRuntimeException(e.getCause());
+            throw e;
+        } catch (RuntimeException e) {
+            getErrorHandler().handleCacheGetError(e, cache, key);
+            return loader.get();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <I, V> Map<I, V> getAll(List<Cache> caches,
+                                   Collection<I> ids,
+                                   Function<I, Object> keyMapper,
+                                   Function<Collection<I>, Map<I, V>> loader) {
+        Set<I> pending = new LinkedHashSet<>(ids);
+        Map<I, V> result = HashMap.newHashMap(pending.size());
+        for (Cache cache : caches) {
+            if (pending.isEmpty()) {
+                break;
+            }
+            Map<Object, I> idsByKey = LinkedHashMap.newLinkedHashMap(pending.size());
+            pending.forEach(id -> idsByKey.put(keyMapper.apply(id), id));
+            getAll(cache, idsByKey.keySet()).forEach((key, value) -> {
+                I id = idsByKey.get(key);
+                if (id != null && value != null) {
+                    result.put(id, (V) value);
+                    pending.remove(id);
+                }
+            });
+        }
+        if (!pending.isEmpty()) {
+            Map<I, V> loaded = loader.apply(List.copyOf(pending));
+            Map<Object, Object> entries = LinkedHashMap.newLinkedHashMap(loaded.size());
+            loaded.forEach((id, value) -> entries.put(keyMapper.apply(id), value));
+            caches.forEach(cache -> putAll(cache, entries));
+            result.putAll(loaded);
+        }
+        return result;
+    }
+
+    public Map<Object, Object> getAll(Cache cache, Collection<?> keys) {
+        if (cache instanceof BatchCache batchCache) {
+            try {
+                return batchCache.getAll(keys);
+            } catch (RuntimeException e) {
+                getErrorHandler().handleCacheGetError(e, cache, keys);
+                return Map.of();
+            }
+        }
+        Map<Object, Object> found = HashMap.newHashMap(keys.size());
+        for (Object key : keys) {
+            Cache.ValueWrapper wrapper = doGet(cache, key);
+            if (wrapper != null && wrapper.get() != null) {
+                found.put(key, wrapper.get());
+            }
+        }
+        return found;
+    }
+
+    public void putAll(Cache cache, Map<?, ?> entries) {
+        if (cache instanceof BatchCache batchCache) {
+            try {
+                batchCache.putAll(entries);
+            } catch (RuntimeException e) {
+                getErrorHandler().handleCachePutError(e, cache, entries.keySet(), entries.values());
+            }
+            return;
+        }
+        entries.forEach((key, value) -> doPut(cache, key, value));
+    }
+
+}
@@ -0,0 +1,34 @@
+package kektor.innowise.gallery.image.cache;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Message published on the cache invalidation channel whenever a node changes an L2 entry.
+ * Wire format is {@code origin\ncache\nkey}; an empty key clears the whole cache.
+ * Other services may publish it too, after changing or deleting the Redis key themselves.
+ */
+public record CacheInvalidation(String origin, String cacheName, String key) {
+
+    static final char SEPARATOR = '\n';
+
+    public boolean clearsAll() {
+        return key.isEmpty();
+    }
+
+    public byte[] encode() {
+        return (origin + SEPARATOR + cacheName + SEPARATOR + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static CacheInvalidation decode(byte[] body) {
+        String message = new String(body, StandardCharsets.UTF_8);
+        int first = message.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : message.indexOf(SEPARATOR, first + 1);
+        if (second < 0) {
+            throw new IllegalArgumentException("Malformed cache invalidation message: " + message);
+        }
+        return new CacheInvalidation(message.substring(0, first),
+                message.substring(first + 1, second),
+                message.substring(second + 1));
+    }
+
+}
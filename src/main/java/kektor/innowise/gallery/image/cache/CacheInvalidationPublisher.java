@@ -0,0 +1,8 @@
+package kektor.innowise.gallery.image.cache;
+
+@FunctionalInterface
+public interface CacheInvalidationPublisher {
+
+    void publish(String cacheName, String key);
+
+}
@@ -0,0 +1,185 @@
+package kektor.innowise.gallery.image.cache;
+
+import kektor.innowise.gallery.image.dto.UserDto;
+import kektor.innowise.gallery.image.helper.VarIntReader;
+import kektor.innowise.gallery.image.helper.VarIntWriter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary encoding of cache values: signed-URL strings, {@link UserDto} and {@code Optional<UserDto>}
+ * are written as tagged, length-prefixed fields; any other value is delegated to the fallback serializer.
+ * <p>
+ * Layout: {@code [version][flags][body]}, where the body is {@code [tag][fields]} and is deflated
+ * when it is longer than the compression threshold and deflating makes it smaller. The version byte is never
+ * a valid first byte of UTF-8 text, so entries written by the fallback (e.g. JSON) before the codec was enabled
+ * are still readable.
+ */
+public class CompactValueCodec implements RedisSerializer<Object> {
+
+    static final byte VERSION_1 = (byte) 0xC1;
+    static final int FLAG_COMPRESSED = 1;
+
+    static final byte TAG_STRING = 1;
+    static final byte TAG_USER = 2;
+    static final byte TAG_EMPTY = 3;
+    static final byte TAG_PRESENT_USER = 4;
+    static final byte TAG_FALLBACK = 5;
+
+    static final int HEADER_SIZE = 2;
+    static final int USER_ID_PRESENT = 1;
+    static final int USERNAME_PRESENT = 1 << 1;
+    static final int EMAIL_PRESENT = 1 << 2;
+
+    private final int compressionThreshold;
+    private final RedisSerializer<Object> fallback;
+
+    public CompactValueCodec(int compressionThreshold, RedisSerializer<Object> fallback) {
+        this.compressionThreshold = compressionThreshold;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        VarIntWriter body = new VarIntWriter();
+        switch (value) {
+            case String string -> {
+                body.writeByte(TAG_STRING);
+                body.writeString(string);
+            }
+            case UserDto user -> {
+                body.writeByte(TAG_USER);
+                writeUser(body, user);
+            }
+            case Optional<?> optional when optional.isEmpty() -> body.writeByte(TAG_EMPTY);
+            case Optional<?> optional when optional.get() instanceof UserDto user -> {
+                body.writeByte(TAG_PRESENT_USER);
+                writeUser(body, user);
+            }
+            default -> {
+                body.writeByte(TAG_FALLBACK);
+                body.writeBytes(fallback.serialize(value));
+            }
+        }
+        if (body.size() > compressionThreshold) {
+            byte[] compressed = compressed(body);
+            if (compressed.length < HEADER_SIZE + body.size()) {
+                return compressed;
+            }
+        }
+        return plain(body);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != VERSION_1) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_SIZE + 1) {
+            throw new SerializationException("Truncated cache value of " + bytes.length + " bytes");
+        }
+        try {
+            VarIntReader body = (bytes[1] & FLAG_COMPRESSED) != 0 ?
+                    reader(inflate(bytes), 0) :
+                    reader(bytes, HEADER_SIZE);
+            byte tag = body.readByte();
+            return switch (tag) {
+                case TAG_STRING -> body.readString();
+                case TAG_USER -> readUser(body);
+                case TAG_EMPTY -> Optional.empty();
+                case TAG_PRESENT_USER -> Optional.of(readUser(body));
+                case TAG_FALLBACK -> fallback.deserialize(body.readRemaining());
+                default -> throw new SerializationException("Unknown cache value tag " + tag);
+            };
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated cache value of " + bytes.length + " bytes", e);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Malformed cache value of " + bytes.length + " bytes", e);
+        }
+    }
+
+    private static void writeUser(VarIntWriter body, UserDto user) {
+        int present = (user.id() != null ? USER_ID_PRESENT : 0)
+                | (user.username() != null ? USERNAME_PRESENT : 0)
+                | (user.email() != null ? EMAIL_PRESENT : 0);
+        body.writeByte(present);
+        if (user.id() != null) {
+            body.writeVarLong(user.id());
+        }
+        if (user.username() != null) {
+            body.writeString(user.username());
+        }
+        if (user.email() != null) {
+            body.writeString(user.email());
+        }
+    }
+
+    private static UserDto readUser(VarIntReader body) {
+        int present = body.readByte();
+        Long id = (present & USER_ID_PRESENT) != 0 ? body.readVarLong() : null;
+        String username = (present & USERNAME_PRESENT) != 0 ? body.readString() : null;
+        String email = (present & EMAIL_PRESENT) != 0 ? body.readString() : null;
+        return new UserDto(id, username, email);
+    }
+
+    private static byte[] plain(VarIntWriter body) {
+        byte[] bytes = new byte[HEADER_SIZE + body.size()];
+        bytes[0] = VERSION_1;
+        System.arraycopy(body.array(), 0, bytes, HEADER_SIZE, body.size());
+        return bytes;
+    }
+
+    private static byte[] compressed(VarIntWriter body) {
+        VarIntWriter out = new VarIntWriter(body.size() / 2 + 16);
+        out.writeByte(VERSION_1);
+        out.writeByte(FLAG_COMPRESSED);
+        out.writeVarLong(body.size());
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(body.array(), 0, body.size());
+            deflater.finish();
+            out.writeDeflated(deflater);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] bytes) {
+        VarIntReader header = reader(bytes, HEADER_SIZE);
+        long length = header.readVarLong();
+        if (length < 0 || length > Integer.MAX_VALUE - 8) {
+            throw new SerializationException("Invalid compressed cache value length " + length);
+        }
+        byte[] body = new byte[(int) length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, header.position(), bytes.length - header.position());
+            int read = inflater.inflate(body);
+            if (read != body.length || !inflater.finished()) {
+                throw new SerializationException("Corrupted compressed cache value");
+            }
+            return body;
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupted compressed cache value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static VarIntReader reader(byte[] bytes, int position) {
+        return new VarIntReader(bytes, position, bytes.length);
+    }
+
+}
@@ -0,0 +1,43 @@
+package kektor.innowise.gallery.image.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Optional;
+
+/**
+ * JSON encoding of cache values that also round-trips {@link Optional}, which the typed Jackson serializer
+ * rejects: an optional is written as an {@link OptionalValue} holder and unwrapped again on read.
+ * Every other value, and every entry written by the plain serializer, goes through the delegate unchanged.
+ */
+public class JsonValueCodec implements RedisSerializer<Object> {
+
+    private final RedisSerializer<Object> delegate;
+
+    public JsonValueCodec() {
+        this(RedisSerializer.json());
+    }
+
+    public JsonValueCodec(RedisSerializer<Object> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        return value instanceof Optional<?> optional ?
+                delegate.serialize(new OptionalValue(optional.orElse(null))) :
+                delegate.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        Object value = delegate.deserialize(bytes);
+        return value instanceof OptionalValue optional ?
+                Optional.ofNullable(optional.value()) :
+                value;
+    }
+
+    public record OptionalValue(Object value) {
+    }
+
+}
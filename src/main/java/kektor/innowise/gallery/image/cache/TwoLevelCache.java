@@ -0,0 +1,428 @@
+package kektor.innowise.gallery.image.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Policy.VarExpiration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Read-through cache over a Caffeine L1 and a Redis L2 under one logical name.
+ * Lookups go to L1 first, then L2. An L2 hit is promoted into L1 for the shorter of the local TTL
+ * and the remaining Redis TTL. Writes and evictions go to both levels. If Redis is unavailable,
+ * the cache logs the failure and keeps working as a local cache.
+ * Keys are stored by their string form, and {@code null} values are not cached. A loader returning {@code null}
+ * on a refresh-ahead reload evicts the entry, as the key no longer has a value.
+ * Loads through {@link #get(Object, Callable)} are single-flight per key: concurrent misses wait
+ * for the first caller's load instead of hitting the backing service.
+ * {@link #getAll} and {@link #putAll} serve a whole batch with a single pipelined Redis round trip.
+ * Only explicit updates ({@link #put}, {@link #evict}, {@link #clear}) are broadcast to other nodes. Read-through
+ * fills, i.e. values loaded on a miss, {@link #putAll} and refresh-ahead reloads that did not change the value,
+ * are not, so a read on one node never clears the same key from its peers' L1.
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache implements BatchCache {
+
+    static final String KEY_SEPARATOR = "::";
+    static final String GETS_METER = "cache.level.gets";
+    static final String COALESCED_LOADS_METER = "cache.loads.coalesced";
+    static final String REFRESHES_METER = "cache.refreshes";
+    static final String ROUND_TRIPS_METER = "cache.remote.round.trips";
+    static final int CLEAR_BATCH_SIZE = 500;
+
+    private final TwoLevelCacheSpec spec;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+    private final VarExpiration<Object, Object> localExpiration;
+    private final RedisConnectionFactory connectionFactory;
+    private final RedisSerializer<Object> valueSerializer;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final Executor refreshExecutor;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    private final Counter coalescedLoads;
+    private final Counter refreshSuccesses;
+    private final Counter refreshFailures;
+    private final Counter remoteRoundTrips;
+
+    public TwoLevelCache(TwoLevelCacheSpec spec,
+                         RedisConnectionFactory connectionFactory,
+                         RedisSerializer<Object> valueSerializer,
+                         CacheInvalidationPublisher invalidationPublisher,
+                         Executor refreshExecutor,
+                         MeterRegistry meterRegistry) {
+        super(false);
+        this.spec = spec;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(spec.localMaximumSize())
+                .expireAfter(Expiry.writing((_, value) -> spec.localTtl().apply(value)))
+                .build();
+        this.localExpiration = local.policy().expireVariably().orElseThrow();
+        this.connectionFactory = connectionFactory;
+        this.valueSerializer = valueSerializer;
+        this.invalidationPublisher = invalidationPublisher;
+        this.refreshExecutor = refreshExecutor;
+        this.localHits = counter(meterRegistry, "local", "hit");
+        this.localMisses = counter(meterRegistry, "local", "miss");
+        this.remoteHits = counter(meterRegistry, "remote", "hit");
+        this.remoteMisses = counter(meterRegistry, "remote", "miss");
+        this.coalescedLoads = Counter.builder(COALESCED_LOADS_METER)
+                .tag("cache", spec.name())
+                .register(meterRegistry);
+        this.refreshSuccesses = refreshCounter(meterRegistry, "success");
+        this.refreshFailures = refreshCounter(meterRegistry, "failure");
+        this.remoteRoundTrips = Counter.builder(ROUND_TRIPS_METER)
+                .tag("cache", spec.name())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return spec.name();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        return lookup(String.valueOf(key));
+    }
+
+    private Object lookup(String key) {
+        Object value = local.getIfPresent(key);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+        localMisses.increment();
+        RemoteEntry entry = remoteGet(key);
+        if (entry == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        promote(key, entry);
+        return entry.value();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String cacheKey = String.valueOf(key);
+        Object cached = lookup(cacheKey);
+        if (cached != null) {
+            refreshIfDue(cacheKey, valueLoader);
+            return (T) fromStoreValue(cached);
+        }
+        return (T) loadOnce(cacheKey, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        String cacheKey = String.valueOf(key);
+        store(cacheKey, value);
+        broadcast(cacheKey);
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<String, Object> requested = LinkedHashMap.newLinkedHashMap(keys.size());
+        keys.forEach(key -> requested.putIfAbsent(String.valueOf(key), key));
+        Map<Object, Object> found = HashMap.newHashMap(requested.size());
+        List<String> misses = new ArrayList<>();
+        requested.forEach((cacheKey, key) -> {
+            Object value = local.getIfPresent(cacheKey);
+            if (value != null) {
+                found.put(key, value);
+            } else {
+                misses.add(cacheKey);
+            }
+        });
+        localHits.increment(found.size());
+        localMisses.increment(misses.size());
+        if (misses.isEmpty()) {
+            return found;
+        }
+        Map<String, RemoteEntry> remote = remoteGetAll(misses);
+        remoteHits.increment(remote.size());
+        remoteMisses.increment(misses.size() - remote.size());
+        remote.forEach((cacheKey, entry) -> {
+            promote(cacheKey, entry);
+            found.put(requested.get(cacheKey), entry.value());
+        });
+        return found;
+    }
+
+    /**
+     * Stores loaded values on both levels without notifying other nodes.
+     */
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        Map<String, Object> values = LinkedHashMap.newLinkedHashMap(entries.size());
+        entries.forEach((key, value) -> {
+            if (value != null) {
+                values.put(String.valueOf(key), value);
+            }
+        });
+        if (values.isEmpty()) {
+            return;
+        }
+        local.putAll(values);
+        remotePutAll(values);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String cacheKey = String.valueOf(key);
+        local.invalidate(cacheKey);
+        remoteDelete(cacheKey);
+        broadcast(cacheKey);
+    }
+
+    @Override
+    public void clear() {
+        local.invalidateAll();
+        remoteClear();
+        broadcast("");
+    }
+
+    void evictLocal(String key) {
+        local.invalidate(key);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    private Object loadOnce(String key, Callable<?> valueLoader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalescedLoads.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        try {
+            Object value = local.getIfPresent(key);
+            if (value == null) {
+                value = valueLoader.call();
+                if (value != null) {
+                    store(key, value);
+                }
+            }
+            flight.complete(value);
+            return value;
+        } catch (Exception e) {
+            flight.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private void refreshIfDue(String key, Callable<?> valueLoader) {
+        if (!spec.refreshesAhead()) {
+            return;
+        }
+        boolean due = localExpiration.getExpiresAfter(key)
+                .map(remaining -> remaining.compareTo(spec.refreshAhead()) <= 0)
+                .orElse(false);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        if (!due || inFlight.putIfAbsent(key, flight) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(key, valueLoader, flight));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, flight);
+            flight.cancel(false);
+        }
+    }
+
+    private void refresh(String key, Callable<?> valueLoader, CompletableFuture<Object> flight) {
+        try {
+            Object value = valueLoader.call();
+            if (value == null) {
+                evict(key);
+            } else if (value.equals(local.getIfPresent(key))) {
+                store(key, value);
+            } else {
+                put(key, value);
+            }
+            refreshSuccesses.increment();
+            flight.complete(value);
+        } catch (Exception e) {
+            refreshFailures.increment();
+            log.warn("Failed to refresh key {} of cache {}", key, getName(), e);
+            flight.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private void store(String key, Object value) {
+        local.put(key, value);
+        remotePut(key, value);
+    }
+
+    private void broadcast(String key) {
+        if (spec.broadcastInvalidations()) {
+            invalidationPublisher.publish(getName(), key);
+        }
+    }
+
+    private void promote(String key, RemoteEntry entry) {
+        Duration ttl = spec.localTtl().apply(entry.value());
+        if (entry.remainingTtl() != null && entry.remainingTtl().compareTo(ttl) < 0) {
+            ttl = entry.remainingTtl();
+        }
+        localExpiration.put(key, entry.value(), ttl);
+    }
+
+    private RemoteEntry remoteGet(String key) {
+        return remoteGetAll(List.of(key)).get(key);
+    }
+
+    private Map<String, RemoteEntry> remoteGetAll(List<String> keys) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            remoteRoundTrips.increment();
+            connection.openPipeline();
+            for (String key : keys) {
+                byte[] redisKey = redisKey(key);
+                connection.stringCommands().get(redisKey);
+                connection.keyCommands().pTtl(redisKey);
+            }
+            List<Object> results = connection.closePipeline();
+            Map<String, RemoteEntry> entries = HashMap.newHashMap(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                if (!(results.get(2 * i) instanceof byte[] bytes)) {
+                    continue;
+                }
+                Duration remainingTtl = results.get(2 * i + 1) instanceof Long millis && millis > 0 ?
+                        Duration.ofMillis(millis) :
+                        null;
+                Object value = valueSerializer.deserialize(bytes);
+                if (value != null) {
+                    entries.put(keys.get(i), new RemoteEntry(value, remainingTtl));
+                }
+            }
+            return entries;
+        } catch (DataAccessException | SerializationException e) {
+            log.warn("Failed to read {} keys of cache {} from Redis", keys.size(), getName(), e);
+            return Map.of();
+        }
+    }
+
+    private void remotePut(String key, Object value) {
+        remotePutAll(Map.of(key, value));
+    }
+
+    private void remotePutAll(Map<String, Object> values) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            remoteRoundTrips.increment();
+            connection.openPipeline();
+            values.forEach((key, value) -> {
+                Duration ttl = spec.remoteTtl().apply(value);
+                if (ttl.isPositive()) {
+                    connection.stringCommands().set(redisKey(key), valueSerializer.serialize(value),
+                            Expiration.from(ttl), SetOption.upsert());
+                }
+            });
+            connection.closePipeline();
+        } catch (DataAccessException | SerializationException e) {
+            log.warn("Failed to write {} keys of cache {} to Redis", values.size(), getName(), e);
+        }
+    }
+
+    private void remoteDelete(String key) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            remoteRoundTrips.increment();
+            connection.keyCommands().del(redisKey(key));
+        } catch (DataAccessException e) {
+            log.warn("Failed to evict key {} of cache {} from Redis", key, getName(), e);
+        }
+    }
+
+    private void remoteClear() {
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(getName() + KEY_SEPARATOR + "*")
+                .count(CLEAR_BATCH_SIZE)
+                .build();
+        try (RedisConnection connection = connectionFactory.getConnection();
+             Cursor<byte[]> keys = connection.keyCommands().scan(options)) {
+            List<byte[]> batch = new ArrayList<>(CLEAR_BATCH_SIZE);
+            while (keys.hasNext()) {
+                batch.add(keys.next());
+                if (batch.size() == CLEAR_BATCH_SIZE) {
+                    connection.keyCommands().del(batch.toArray(byte[][]::new));
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                connection.keyCommands().del(batch.toArray(byte[][]::new));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to clear cache {} in Redis", getName(), e);
+        }
+    }
+
+    private byte[] redisKey(String key) {
+        return (getName() + KEY_SEPARATOR + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String level, String result) {
+        return Counter.builder(GETS_METER)
+                .tag("cache", spec.name())
+                .tag("level", level)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter refreshCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(REFRESHES_METER)
+                .tag("cache", spec.name())
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record RemoteEntry(Object value, Duration remainingTtl) {
+    }
+
+}
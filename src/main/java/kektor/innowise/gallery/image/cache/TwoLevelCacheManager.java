@@ -0,0 +1,108 @@
+package kektor.innowise.gallery.image.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Owns the {@link TwoLevelCache}s of this node and keeps their L1 coherent across nodes:
+ * L2 changes are announced on a Redis pub/sub channel, and invalidations from other nodes evict local entries.
+ * Refresh-ahead reloads run on virtual threads with the security context of the request that triggered them.
+ */
+@Slf4j
+public class TwoLevelCacheManager extends AbstractCacheManager
+        implements CacheInvalidationPublisher, MessageListener, DisposableBean {
+
+    static final String INVALIDATIONS_METER = "cache.invalidations.received";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<TwoLevelCacheSpec> specs;
+    private final RedisConnectionFactory connectionFactory;
+    private final RedisSerializer<Object> valueSerializer;
+    private final ChannelTopic invalidationTopic;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService refreshExecutor = new DelegatingSecurityContextExecutorService(
+            Executors.newVirtualThreadPerTaskExecutor());
+
+    public TwoLevelCacheManager(List<TwoLevelCacheSpec> specs,
+                                RedisConnectionFactory connectionFactory,
+                                RedisSerializer<Object> valueSerializer,
+                                ChannelTopic invalidationTopic,
+                                MeterRegistry meterRegistry) {
+        this.specs = List.copyOf(specs);
+        this.connectionFactory = connectionFactory;
+        this.valueSerializer = valueSerializer;
+        this.invalidationTopic = invalidationTopic;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ChannelTopic getInvalidationTopic() {
+        return invalidationTopic;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return specs.stream()
+                .map(spec -> new TwoLevelCache(spec, connectionFactory, valueSerializer, this, refreshExecutor,
+                        meterRegistry))
+                .toList();
+    }
+
+    @Override
+    public void publish(String cacheName, String key) {
+        byte[] channel = invalidationTopic.getTopic().getBytes(StandardCharsets.UTF_8);
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.publish(channel, new CacheInvalidation(nodeId, cacheName, key).encode());
+        } catch (DataAccessException e) {
+            log.warn("Failed to publish invalidation of key {} of cache {}", key, cacheName, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidation invalidation;
+        try {
+            invalidation = CacheInvalidation.decode(message.getBody());
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring cache invalidation: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(invalidation.origin())
+                || !(getCache(invalidation.cacheName()) instanceof TwoLevelCache cache)) {
+            return;
+        }
+        if (invalidation.clearsAll()) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(invalidation.key());
+        }
+        Counter.builder(INVALIDATIONS_METER)
+                .tag("cache", cache.getName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.close();
+    }
+
+}
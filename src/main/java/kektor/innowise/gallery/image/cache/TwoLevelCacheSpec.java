@@ -0,0 +1,35 @@
+package kektor.innowise.gallery.image.cache;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Per-cache settings of a {@link TwoLevelCache}. TTLs are computed from the cached value,
+ * so entries such as presigned URLs can expire together with the data they carry.
+ * With {@code broadcastInvalidations} explicit writes and evictions evict the entry from the L1 of other nodes.
+ * A positive {@code refreshAhead} reloads an entry in the background once its L1 TTL drops below it.
+ */
+public record TwoLevelCacheSpec(String name,
+                                long localMaximumSize,
+                                Function<Object, Duration> localTtl,
+                                Function<Object, Duration> remoteTtl,
+                                boolean broadcastInvalidations,
+                                Duration refreshAhead) {
+
+    public static TwoLevelCacheSpec of(String name, long localMaximumSize, Duration localTtl, Duration remoteTtl) {
+        return new TwoLevelCacheSpec(name, localMaximumSize, _ -> localTtl, _ -> remoteTtl, false, Duration.ZERO);
+    }
+
+    public TwoLevelCacheSpec withBroadcastInvalidations() {
+        return new TwoLevelCacheSpec(name, localMaximumSize, localTtl, remoteTtl, true, refreshAhead);
+    }
+
+    public TwoLevelCacheSpec withRefreshAhead(Duration refreshAhead) {
+        return new TwoLevelCacheSpec(name, localMaximumSize, localTtl, remoteTtl, broadcastInvalidations, refreshAhead);
+    }
+
+    public boolean refreshesAhead() {
+        return refreshAhead.isPositive();
+    }
+
+}
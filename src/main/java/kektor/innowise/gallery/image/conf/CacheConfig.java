@@ -1,81 +1,88 @@
 package kektor.innowise.gallery.image.conf;
 
-import org.springframework.boot.autoconfigure.cache.CacheProperties;
-import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import kektor.innowise.gallery.image.cache.CompactValueCodec;
+import kektor.innowise.gallery.image.cache.JsonValueCodec;
+import kektor.innowise.gallery.image.cache.TwoLevelCacheManager;
+import kektor.innowise.gallery.image.cache.TwoLevelCacheSpec;
+import kektor.innowise.gallery.image.service.SignedUrlPolicy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
-import org.springframework.cache.support.CompositeCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
-import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializer;
-import org.springframework.util.StringUtils;
 
-import java.util.Set;
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 @EnableCaching
-@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig implements CachingConfigurer {
 
-    public static final String URLS_CACHE_LOCAL = "urlsCacheLocal";
-    public static final String URLS_CACHE_REMOTE = "urlsCacheRemote";
-    public static final String USERS_CACHE_LOCAL = "usersCacheLocal";
-    public static final String USERS_CACHE_REMOTE = "usersCacheRemote";
+    public static final String URLS_CACHE = "urlsCache";
+    public static final String USERS_CACHE = "usersCache";
+    public static final String MISSING_USERS_CACHE = "missingUsersCache";
 
+    @Bean
     @Override
     public CacheErrorHandler errorHandler() {
         return new LoggingCacheErrorHandler();
     }
 
     @Bean
-    @Primary
-    CompositeCacheManager twoLevelCacheManager(CaffeineCacheManager caffeineCacheManager,
-                                               RedisCacheManager redisCacheManager) {
-        return new CompositeCacheManager(
-                caffeineCacheManager,
-                redisCacheManager
-        );
+    RedisSerializer<Object> cacheValueSerializer(@Value("${app.cache.codec.format}") String format,
+                                                 @Value("${app.cache.codec.compression-threshold}") int compressionThreshold) {
+        return switch (format) {
+            case "compact" -> new CompactValueCodec(compressionThreshold, new JsonValueCodec());
+            case "json" -> new JsonValueCodec();
+            default -> throw new IllegalArgumentException("Unsupported cache value format: " + format);
+        };
     }
 
     @Bean
-    RedisCacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory,
-                                        CacheProperties cacheProperties) {
-        var builder = RedisCacheManager.builder(redisConnectionFactory)
-                .cacheDefaults(createConfiguration(cacheProperties));
-        builder.initialCacheNames(Set.of(URLS_CACHE_REMOTE, USERS_CACHE_REMOTE));
-        return builder.build();
+    @Primary
+    TwoLevelCacheManager twoLevelCacheManager(RedisConnectionFactory redisConnectionFactory,
+                                              MeterRegistry meterRegistry,
+                                              SignedUrlPolicy urlPolicy,
+                                              RedisSerializer<Object> cacheValueSerializer,
+                                              @Value("${app.cache.urls.local-maximum-size}") long urlsMaximumSize,
+                                              @Value("${app.cache.users.local-maximum-size}") long usersMaximumSize,
+                                              @Value("${app.cache.users.local-ttl}") Duration usersLocalTtl,
+                                              @Value("${app.cache.users.remote-ttl}") Duration usersRemoteTtl,
+                                              @Value("${app.cache.users.refresh-ahead}") Duration usersRefreshAhead,
+                                              @Value("${app.cache.missing-users.local-maximum-size}") long missingUsersMaximumSize,
+                                              @Value("${app.cache.missing-users.ttl}") Duration missingUsersTtl,
+                                              @Value("${app.cache.invalidation-channel}") String invalidationChannel) {
+        return new TwoLevelCacheManager(
+                List.of(
+                        new TwoLevelCacheSpec(URLS_CACHE, urlsMaximumSize, urlPolicy::cacheTtl, urlPolicy::cacheTtl,
+                                false, Duration.ZERO),
+                        TwoLevelCacheSpec.of(USERS_CACHE, usersMaximumSize, usersLocalTtl, usersRemoteTtl)
+                                .withBroadcastInvalidations()
+                                .withRefreshAhead(usersRefreshAhead),
+                        TwoLevelCacheSpec.of(MISSING_USERS_CACHE, missingUsersMaximumSize, missingUsersTtl, missingUsersTtl)
+                ),
+                redisConnectionFactory,
+                cacheValueSerializer,
+                new ChannelTopic(invalidationChannel),
+                meterRegistry
+        );
     }
 
     @Bean
-    CaffeineCacheManager caffeineCacheManager(CacheProperties cacheProperties) {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        String specification = cacheProperties.getCaffeine().getSpec();
-        if (StringUtils.hasText(specification)) {
-            cacheManager.setCacheSpecification(specification);
-        }
-        cacheManager.setCacheNames(Set.of(URLS_CACHE_LOCAL, USERS_CACHE_LOCAL));
-        return cacheManager;
-    }
-
-    private RedisCacheConfiguration createConfiguration(CacheProperties cacheProperties) {
-        CacheProperties.Redis redisProperties = cacheProperties.getRedis();
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig();
-        config = config.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.string()));
-        if (redisProperties.getTimeToLive() != null) {
-            config = config.entryTtl(redisProperties.getTimeToLive());
-        }
-        if (!redisProperties.isCacheNullValues()) {
-            config = config.disableCachingNullValues();
-        }
-        return config;
+    RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                    TwoLevelCacheManager twoLevelCacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(twoLevelCacheManager, twoLevelCacheManager.getInvalidationTopic());
+        return container;
     }
 
 }
\ No newline at end of file
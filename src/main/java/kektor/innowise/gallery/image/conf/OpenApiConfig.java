@@ -111,7 +111,8 @@ public class OpenApiConfig {
                 .addParameters(SORT_CRITERIA,
                         new Parameter()
                                 .name("sort")
-                                .description("Sorting criteria")
+                                .description("Sorting criteria: uploadedAt or likesCount, optionally followed by id "
+                                        + "in the same direction; defaults to uploadedAt,desc")
                                 .in(ParameterIn.QUERY.toString())
                                 .schema(new StringSchema().example("uploadedAt,desc")))
                 .addParameters(TILL_DATE,
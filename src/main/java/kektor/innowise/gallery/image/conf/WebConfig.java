@@ -1,9 +1,14 @@
 package kektor.innowise.gallery.image.conf;
 
 import kektor.innowise.gallery.image.controller.argument.KeySetScrollPositionArgumentResolver;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.List;
@@ -12,6 +17,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    static final String STREAMING_UPLOAD_PATH = "/api/images/upload/stream";
+
     final KeySetScrollPositionArgumentResolver scrollPositionArgumentResolver;
 
     @Override
@@ -19,4 +26,19 @@ public class WebConfig implements WebMvcConfigurer {
         resolvers.add(scrollPositionArgumentResolver);
     }
 
+    /**
+     * Leaves the streaming upload request unresolved, so its body is parsed incrementally by the endpoint
+     * instead of being spooled up front; every other multipart request is resolved eagerly as usual.
+     */
+    @Bean(DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+    MultipartResolver multipartResolver() {
+        return new StandardServletMultipartResolver() {
+            @Override
+            public boolean isMultipart(HttpServletRequest request) {
+                String path = request.getRequestURI().substring(request.getContextPath().length());
+                return !STREAMING_UPLOAD_PATH.equals(path) && super.isMultipart(request);
+            }
+        };
+    }
+
 }
@@ -1,12 +1,18 @@
 package kektor.innowise.gallery.image.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import kektor.innowise.gallery.image.controller.openapi.ImageServiceOpenApi;
 import kektor.innowise.gallery.image.dto.ImageDto;
 import kektor.innowise.gallery.image.dto.KeySetScrollRequest;
+import kektor.innowise.gallery.image.dto.LikeStateDto;
+import kektor.innowise.gallery.image.dto.PresignedUploadDto;
+import kektor.innowise.gallery.image.dto.PresignedUploadRequestDto;
 import kektor.innowise.gallery.image.dto.UpdateRequestDto;
 import kektor.innowise.gallery.image.dto.UploadRequestDto;
 import kektor.innowise.gallery.image.service.ImageService;
+import kektor.innowise.gallery.image.service.PresignedUploadService;
+import kektor.innowise.gallery.image.service.StreamingUploadService;
 import kektor.innowise.gallery.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Window;
@@ -31,6 +37,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class ImageController implements ImageServiceOpenApi {
 
     final ImageService imageService;
+    final StreamingUploadService streamingUploadService;
+    final PresignedUploadService presignedUploadService;
 
     @GetMapping(
             path = "/{id}",
@@ -53,6 +61,38 @@ public class ImageController implements ImageServiceOpenApi {
                 .body(imageService.save(uploadRequest));
     }
 
+    @PostMapping(
+            path = "/upload/stream",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Override
+    public ResponseEntity<ImageDto> uploadStreaming(HttpServletRequest request) {
+        return ResponseEntity.ok()
+                .body(streamingUploadService.save(request));
+    }
+
+    @PostMapping(
+            path = "/uploads",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Override
+    public ResponseEntity<PresignedUploadDto> reserveUpload(@Valid @RequestBody PresignedUploadRequestDto uploadRequest) {
+        return ResponseEntity.ok()
+                .body(presignedUploadService.reserve(uploadRequest));
+    }
+
+    @PostMapping(
+            path = "/uploads/{uploadId}/complete",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Override
+    public ResponseEntity<ImageDto> completeUpload(@PathVariable Long uploadId) {
+        return ResponseEntity.ok()
+                .body(presignedUploadService.complete(uploadId));
+    }
+
     @PutMapping(
             path = "/{imageId}",
             consumes = MediaType.APPLICATION_JSON_VALUE
@@ -107,6 +147,24 @@ public class ImageController implements ImageServiceOpenApi {
         return ResponseEntity.ok(imageService.likeImage(imageId));
     }
 
+    @PutMapping(
+            path = "/{imageId}/like",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Override
+    public ResponseEntity<LikeStateDto> putLike(@PathVariable Long imageId) {
+        return ResponseEntity.ok(imageService.putLike(imageId));
+    }
+
+    @DeleteMapping(
+            path = "/{imageId}/like",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Override
+    public ResponseEntity<LikeStateDto> removeLike(@PathVariable Long imageId) {
+        return ResponseEntity.ok(imageService.removeLike(imageId));
+    }
+
     @GetMapping(
             path = "/{imageId}/internal",
             headers = "X-System-Internal-Call",
@@ -10,9 +10,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.FailedApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import kektor.innowise.gallery.image.dto.ImageDto;
 import kektor.innowise.gallery.image.dto.KeySetScrollRequest;
+import kektor.innowise.gallery.image.dto.LikeStateDto;
+import kektor.innowise.gallery.image.dto.PresignedUploadDto;
+import kektor.innowise.gallery.image.dto.PresignedUploadRequestDto;
 import kektor.innowise.gallery.image.dto.UpdateRequestDto;
 import kektor.innowise.gallery.image.dto.UploadRequestDto;
 import kektor.innowise.gallery.security.UserPrincipal;
@@ -69,6 +73,65 @@ public interface ImageServiceOpenApi {
     @ImageDtoResponse
     ResponseEntity<ImageDto> upload(@Valid @ModelAttribute UploadRequestDto uploadRequest);
 
+    @Operation(
+            summary = "Upload new image (streaming)",
+            description = """
+                    Uploads a new image to the gallery with description.
+                    The multipart body is parsed incrementally and the image part is streamed
+                    straight to storage without being buffered on disk.
+                    Supported formats: JPEG, PNG. Maximum file size: 50MB.
+                    """,
+            requestBody = @RequestBody(
+                    description = "Image upload request with file and description",
+                    required = true,
+                    content = @Content(
+                            mediaType = MediaType.MULTIPART_FORM_DATA_VALUE,
+                            schema = @Schema(implementation = UploadRequestDto.class)
+                    )
+            ),
+            security = @SecurityRequirement(name = JWT_BEARER_TOKEN)
+    )
+    @ImageDtoResponse
+    ResponseEntity<ImageDto> uploadStreaming(@Parameter(hidden = true) HttpServletRequest request);
+
+    @Operation(
+            summary = "Reserve direct image upload",
+            description = """
+                    Reserves an upload and returns a presigned URL the image has to be sent to directly.
+                    The URL only accepts the declared content type and exact size, and expires together
+                    with the reservation. Supported formats: JPEG, PNG. Maximum file size: 50MB.
+                    """,
+            requestBody = @RequestBody(
+                    description = "Image description and declared file metadata",
+                    required = true,
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = PresignedUploadRequestDto.class)
+                    )
+            ),
+            security = @SecurityRequirement(name = JWT_BEARER_TOKEN)
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Upload reserved",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = PresignedUploadDto.class)
+            )
+    )
+    ResponseEntity<PresignedUploadDto> reserveUpload(@Valid PresignedUploadRequestDto uploadRequest);
+
+    @Operation(
+            summary = "Complete direct image upload",
+            description = """
+                    Verifies that the image has been stored under the reserved upload
+                    and publishes it to the gallery.
+                    """,
+            security = @SecurityRequirement(name = JWT_BEARER_TOKEN)
+    )
+    @ImageDtoResponse
+    ResponseEntity<ImageDto> completeUpload(@Parameter(description = "Upload reservation ID", example = "5001") Long uploadId);
+
     @Operation(
             summary = "Update image description",
             description = "Updates the description of an existing image.",
@@ -161,6 +224,28 @@ public interface ImageServiceOpenApi {
     @ImageDtoResponse
     ResponseEntity<ImageDto> likeImage(@ImageIdParameter Long imageId);
 
+    @Operation(
+            summary = "Like image",
+            description = """
+                    Likes a specific image. Repeated calls keep the image liked
+                    and do not change the likes count.
+                    """,
+            security = @SecurityRequirement(name = JWT_BEARER_TOKEN)
+    )
+    @LikeStateResponse
+    ResponseEntity<LikeStateDto> putLike(@ImageIdParameter Long imageId);
+
+    @Operation(
+            summary = "Remove image like",
+            description = """
+                    Removes the current user like from a specific image.
+                    Repeated calls keep the image unliked and do not change the likes count.
+                    """,
+            security = @SecurityRequirement(name = JWT_BEARER_TOKEN)
+    )
+    @LikeStateResponse
+    ResponseEntity<LikeStateDto> removeLike(@ImageIdParameter Long imageId);
+
     @Operation(
             summary = "Get image by ID for internal usage",
             description = "Retrieves a specific image by its id by internal service call",
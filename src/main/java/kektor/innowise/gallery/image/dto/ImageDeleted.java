@@ -1,4 +1,6 @@
 package kektor.innowise.gallery.image.dto;
 
-public record ImageDeleted(Long imageId) {
-}
\ No newline at end of file
+import kektor.innowise.gallery.security.UserPrincipal;
+
+public record ImageDeleted(Long imageId, UserPrincipal deletedBy) {
+}
@@ -0,0 +1,43 @@
+package kektor.innowise.gallery.image.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(
+        name = "LikeStateDto",
+        description = "Like state of an image for the current user"
+)
+public record LikeStateDto(
+
+        @Schema(
+                description = "Unique image ID",
+                example = "12345",
+                accessMode = Schema.AccessMode.READ_ONLY
+        )
+        Long imageId,
+
+        @Schema(
+                description = "User ID who uploaded the image",
+                example = "67890",
+                accessMode = Schema.AccessMode.READ_ONLY
+        )
+        Long userId,
+
+        @Schema(
+                description = "Number of likes the image",
+                example = "42",
+                accessMode = Schema.AccessMode.READ_ONLY
+        )
+        Integer likesCount,
+
+        @Schema(
+                description = "Whether the current user has liked this image",
+                example = "true",
+                accessMode = Schema.AccessMode.READ_ONLY
+        )
+        boolean isLiked,
+
+        @JsonIgnore
+        boolean changed
+) {
+}
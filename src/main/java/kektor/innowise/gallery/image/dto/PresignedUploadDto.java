@@ -0,0 +1,49 @@
+package kektor.innowise.gallery.image.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Schema(
+        name = "PresignedUploadDto",
+        description = "Reserved upload with a presigned URL the image has to be sent to"
+)
+public record PresignedUploadDto(
+
+        @Schema(
+                description = "Upload reservation ID used to complete the upload",
+                example = "5001",
+                accessMode = Schema.AccessMode.READ_ONLY
+        )
+        Long uploadId,
+
+        @Schema(
+                description = "Presigned S3 URL accepting exactly the reserved content type and size",
+                example = "https://images.s3.amazonaws.com/users/67890/abc123.jpg?X-Amz-Signature=...",
+                accessMode = Schema.AccessMode.READ_ONLY
+        )
+        String url,
+
+        @Schema(
+                description = "HTTP method to send the image with",
+                example = "PUT",
+                accessMode = Schema.AccessMode.READ_ONLY
+        )
+        String method,
+
+        @Schema(
+                description = "Headers that must be sent along with the image",
+                example = "{\"Content-Type\": \"image/jpeg\", \"Cache-Control\": \"public, max-age=86400\"}",
+                accessMode = Schema.AccessMode.READ_ONLY
+        )
+        Map<String, String> headers,
+
+        @Schema(
+                description = "Moment the URL and the reservation expire",
+                example = "2025-11-01T10:45:00Z",
+                accessMode = Schema.AccessMode.READ_ONLY
+        )
+        Instant expiresAt
+) {
+}
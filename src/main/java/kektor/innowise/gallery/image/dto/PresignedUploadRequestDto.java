@@ -0,0 +1,50 @@
+package kektor.innowise.gallery.image.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+@Schema(
+        name = "PresignedUploadRequestDto",
+        description = "Request model for reserving a direct-to-storage image upload"
+)
+public record PresignedUploadRequestDto(
+
+        @Schema(
+                description = "Image description text",
+                requiredMode = Schema.RequiredMode.REQUIRED,
+                example = "Test image description"
+        )
+        @NotBlank
+        @Size(max = 1000)
+        String description,
+
+        @Schema(
+                description = "Original image file name (JPEG, PNG)",
+                requiredMode = Schema.RequiredMode.REQUIRED,
+                example = "sunset.jpg"
+        )
+        @NotBlank
+        @Size(max = 255)
+        String fileName,
+
+        @Schema(
+                description = "Image content type",
+                requiredMode = Schema.RequiredMode.REQUIRED,
+                example = "image/jpeg"
+        )
+        @NotBlank
+        String contentType,
+
+        @Schema(
+                description = "Exact image size in bytes (max 50MB)",
+                requiredMode = Schema.RequiredMode.REQUIRED,
+                example = "2097152"
+        )
+        @NotNull
+        @Positive
+        Long contentLength
+) {
+}
@@ -0,0 +1,10 @@
+package kektor.innowise.gallery.image.exception;
+
+public class ImageUploadNotFoundException extends RuntimeException {
+
+    private static final String IMAGE_UPLOAD_NOT_FOUND = "Image upload with id: (%d) not found or expired";
+
+    public ImageUploadNotFoundException(Long uploadId) {
+        super(String.format(IMAGE_UPLOAD_NOT_FOUND, uploadId));
+    }
+}
@@ -0,0 +1,10 @@
+package kektor.innowise.gallery.image.exception;
+
+public class InvalidUploadRequestException extends RuntimeException {
+
+    private static final String UPLOAD_REQUEST_INVALID = "Invalid upload request: %s";
+
+    public InvalidUploadRequestException(String reason) {
+        super(String.format(UPLOAD_REQUEST_INVALID, reason));
+    }
+}
@@ -0,0 +1,12 @@
+package kektor.innowise.gallery.image.exception;
+
+import org.springframework.data.domain.Sort;
+
+public class UnsupportedSortException extends RuntimeException {
+
+    private static final String SORT_UNSUPPORTED = "Sort (%s) is not supported";
+
+    public UnsupportedSortException(Sort sort) {
+        super(String.format(SORT_UNSUPPORTED, sort));
+    }
+}
@@ -2,8 +2,11 @@ package kektor.innowise.gallery.image.exception.handler;
 
 import kektor.innowise.gallery.image.exception.ImageNotFoundException;
 import kektor.innowise.gallery.image.exception.ImageUploadException;
+import kektor.innowise.gallery.image.exception.ImageUploadNotFoundException;
 import kektor.innowise.gallery.image.exception.InvalidCursorParameter;
+import kektor.innowise.gallery.image.exception.InvalidUploadRequestException;
 import kektor.innowise.gallery.image.exception.NonAuthorizedImageAccessException;
+import kektor.innowise.gallery.image.exception.UnsupportedSortException;
 import kektor.innowise.gallery.image.exception.UserNotFoundException;
 import kektor.innowise.gallery.image.exception.UsernameNotFoundException;
 import lombok.extern.slf4j.Slf4j;
@@ -25,6 +28,7 @@ public class ApplicationExceptionHandler extends ResponseEntityExceptionHandler
 
     @ExceptionHandler({
             ImageNotFoundException.class,
+            ImageUploadNotFoundException.class,
             UsernameNotFoundException.class,
             UserNotFoundException.class})
     public ErrorResponse handleImageNotFound(Exception ex) {
@@ -41,6 +45,16 @@ public class ApplicationExceptionHandler extends ResponseEntityExceptionHandler
         return ErrorResponse.create(ex, HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
+    @ExceptionHandler(UnsupportedSortException.class)
+    ErrorResponse handleUnsupportedSort(UnsupportedSortException ex) {
+        return ErrorResponse.create(ex, HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidUploadRequestException.class)
+    ErrorResponse handleInvalidUploadRequest(InvalidUploadRequestException ex) {
+        return ErrorResponse.create(ex, HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
     @ExceptionHandler(ImageUploadException.class)
     ErrorResponse handleImageUploadFail(ImageUploadException ex) {
         log.error(ex.getMessage(), ex);
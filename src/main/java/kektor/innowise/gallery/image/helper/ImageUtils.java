@@ -1,8 +1,13 @@
 package kektor.innowise.gallery.image.helper;
 
 
+import java.util.Set;
+
 public class ImageUtils {
 
+    public static final Set<String> ALLOWED_EXTENSIONS = Set.of(".jpg", ".jpeg", ".png");
+    public static final Set<String> ALLOWED_MIME_TYPES = Set.of("image/jpeg", "image/png");
+
     public static String extractExtension(String filename) {
         if (filename == null || !filename.contains(".")) {
             return null;
@@ -11,4 +16,10 @@ public class ImageUtils {
         return extension.toLowerCase();
     }
 
+    public static boolean isSupportedImage(String filename, String contentType) {
+        String extension = extractExtension(filename);
+        return extension != null && ALLOWED_EXTENSIONS.contains(extension) &&
+                contentType != null && ALLOWED_MIME_TYPES.contains(contentType);
+    }
+
 }
@@ -0,0 +1,52 @@
+package kektor.innowise.gallery.image.helper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Supplier;
+
+public class SizeLimitedInputStream extends FilterInputStream {
+
+    private final long maxSize;
+    private final Supplier<? extends RuntimeException> limitExceeded;
+    private long count;
+
+    public SizeLimitedInputStream(InputStream in, long maxSize, Supplier<? extends RuntimeException> limitExceeded) {
+        super(in);
+        this.maxSize = maxSize;
+        this.limitExceeded = limitExceeded;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value != -1) {
+            count(1);
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            count(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    private void count(long read) {
+        count += read;
+        if (count > maxSize) {
+            throw limitExceeded.get();
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package kektor.innowise.gallery.image.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads values written by {@link VarIntWriter} from a range of a byte array. Reading past the end of the range
+ * throws {@link ArrayIndexOutOfBoundsException}, a malformed varint or string length
+ * {@link IllegalArgumentException}; codecs translate both into their own errors.
+ */
+public class VarIntReader {
+
+    private final byte[] bytes;
+    private final int limit;
+    private int position;
+
+    public VarIntReader(byte[] bytes, int position, int limit) {
+        this.bytes = bytes;
+        this.position = position;
+        this.limit = limit;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    public byte readByte() {
+        if (position >= limit) {
+            throw new ArrayIndexOutOfBoundsException(position);
+        }
+        return bytes[position++];
+    }
+
+    public long readVarLong() {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte next = readByte();
+            zigZag |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint at " + position);
+    }
+
+    public String readString() {
+        long length = readVarLong();
+        if (length < 0 || length > limit - position) {
+            throw new IllegalArgumentException("Invalid string length " + length + " at " + position);
+        }
+        String value = new String(bytes, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        return value;
+    }
+
+    public byte[] readRemaining() {
+        byte[] remaining = Arrays.copyOfRange(bytes, position, limit);
+        position = limit;
+        return remaining;
+    }
+
+}
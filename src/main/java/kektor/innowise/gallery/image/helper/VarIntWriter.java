@@ -0,0 +1,84 @@
+package kektor.innowise.gallery.image.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Growable byte buffer shared by the compact binary codecs: numbers are written as zigzag varints
+ * and strings as varint length-prefixed UTF-8. {@link VarIntReader} reads them back.
+ */
+public class VarIntWriter {
+
+    static final int MAX_VAR_LONG_SIZE = 10;
+
+    private byte[] bytes;
+    private int size;
+
+    public VarIntWriter() {
+        this(64);
+    }
+
+    public VarIntWriter(int capacity) {
+        this.bytes = new byte[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the backing array without copying it; only its first {@link #size()} bytes are written.
+     */
+    public byte[] array() {
+        return bytes;
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        bytes[size++] = (byte) value;
+    }
+
+    public void writeBytes(byte[] value) {
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, bytes, size, value.length);
+        size += value.length;
+    }
+
+    public void writeVarLong(long value) {
+        ensureCapacity(MAX_VAR_LONG_SIZE);
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            bytes[size++] = (byte) ((zigZag & 0x7F) | 0x80);
+            zigZag >>>= 7;
+        }
+        bytes[size++] = (byte) zigZag;
+    }
+
+    public void writeString(String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(utf8.length);
+        writeBytes(utf8);
+    }
+
+    /**
+     * Appends the output of a deflater whose input is already finished.
+     */
+    public void writeDeflated(Deflater deflater) {
+        while (!deflater.finished()) {
+            ensureCapacity(Math.max(64, size / 2));
+            size += deflater.deflate(bytes, size, bytes.length - size);
+        }
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package kektor.innowise.gallery.image.helper;
+
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Forks subtasks onto virtual threads carrying the caller's {@code SecurityContext}.
+ * The first failed join cancels the remaining subtasks, and closing the scope waits for all of them,
+ * in the spirit of {@code StructuredTaskScope} which is still a preview API.
+ */
+public final class VirtualThreadScope implements AutoCloseable {
+
+    private final ExecutorService executor = new DelegatingSecurityContextExecutorService(
+            Executors.newVirtualThreadPerTaskExecutor());
+
+    public <T> Supplier<T> fork(Callable<T> task) {
+        Future<T> future = executor.submit(task);
+        return () -> join(future);
+    }
+
+    private <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            switch (e.getCause()) {
+                case RuntimeException cause -> throw cause;
+                case Error cause -> throw cause;
+                default -> throw new IllegalStateException(e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            throw new CancellationException("Interrupted while waiting for subtask");
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+}
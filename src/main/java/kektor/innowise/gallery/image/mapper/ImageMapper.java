@@ -1,21 +1,37 @@
 package kektor.innowise.gallery.image.mapper;
 
 import kektor.innowise.gallery.image.dto.ImageDto;
+import kektor.innowise.gallery.image.dto.LikeStateDto;
+import kektor.innowise.gallery.image.dto.PresignedUploadRequestDto;
 import kektor.innowise.gallery.image.dto.UploadRequestDto;
 import kektor.innowise.gallery.image.model.Image;
+import kektor.innowise.gallery.image.model.ImageUpload;
 import kektor.innowise.gallery.image.model.Like;
 import kektor.innowise.gallery.image.msg.LikeEventMessage;
+import kektor.innowise.gallery.image.repository.ImageView;
 import kektor.innowise.gallery.security.UserPrincipal;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
+import java.time.Instant;
+
 @Mapper(config = MapConfig.class)
 public interface ImageMapper {
 
     Image toModel(UploadRequestDto registrationRequest, Long userId, String s3key);
 
+    Image toModel(String description, Long userId, String s3key);
+
+    ImageUpload toModel(PresignedUploadRequestDto uploadRequest, Long userId, String s3key, Instant expiresAt);
+
     ImageDto toDto(Image image, String username, String url, boolean isLiked);
 
+    @Mapping(target = "isLiked", source = "image.liked")
+    ImageDto toDto(ImageView image, String username, String url);
+
+    @Mapping(target = "likesCount", source = "likesCount")
+    ImageDto withLikesCount(ImageDto imageDto, Integer likesCount);
+
     @Mapping(source = "imageId", target = "image.id")
     Like toModel(Long imageId, Long userId);
 
@@ -26,4 +42,12 @@ public interface ImageMapper {
     @Mapping(target = "instant", expression = "java(Instant.now())")
     LikeEventMessage toEvent(ImageDto image, UserPrincipal user, LikeEventMessage.EventType eventType);
 
+    @Mapping(target = "imageId", source = "likeState.imageId")
+    @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "username", source = "user.username")
+    @Mapping(target = "imageOwnerId", source = "likeState.userId")
+    @Mapping(target = "likesCount", source = "likeState.likesCount")
+    @Mapping(target = "instant", expression = "java(Instant.now())")
+    LikeEventMessage toEvent(LikeStateDto likeState, UserPrincipal user, LikeEventMessage.EventType eventType);
+
 }
\ No newline at end of file
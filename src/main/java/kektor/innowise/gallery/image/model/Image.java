@@ -2,11 +2,15 @@ package kektor.innowise.gallery.image.model;
 
 
 import jakarta.persistence.Column;
+import jakarta.persistence.ColumnResult;
+import jakarta.persistence.ConstructorResult;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.SqlResultSetMapping;
 import jakarta.persistence.Table;
+import kektor.innowise.gallery.image.repository.ImageView;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
@@ -19,8 +23,21 @@ import java.time.Instant;
 @Entity
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Table(name = "images", schema = "gallery")
+@SqlResultSetMapping(name = Image.IMAGE_VIEW_MAPPING, classes = @ConstructorResult(
+        targetClass = ImageView.class,
+        columns = {
+                @ColumnResult(name = "id", type = Long.class),
+                @ColumnResult(name = "user_id", type = Long.class),
+                @ColumnResult(name = "s3key", type = String.class),
+                @ColumnResult(name = "description", type = String.class),
+                @ColumnResult(name = "uploaded_at", type = Instant.class),
+                @ColumnResult(name = "likes_count", type = Integer.class),
+                @ColumnResult(name = "liked", type = boolean.class)
+        }))
 public class Image {
 
+    public static final String IMAGE_VIEW_MAPPING = "ImageViewMapping";
+
     static final String ID_GENERATOR_IMAGES = "ID_GENERATOR_IMAGES";
     static final String ID_GENERATOR_IMAGES_SEQUENCE = "id_images_sequence_generator";
 
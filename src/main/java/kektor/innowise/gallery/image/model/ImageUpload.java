@@ -0,0 +1,54 @@
+package kektor.innowise.gallery.image.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "image_uploads", schema = "gallery")
+public class ImageUpload {
+
+    static final String ID_GENERATOR_IMAGE_UPLOADS = "ID_GENERATOR_IMAGE_UPLOADS";
+    static final String ID_GENERATOR_IMAGE_UPLOADS_SEQUENCE = "id_image_uploads_sequence_generator";
+
+    @Id
+    @GeneratedValue(generator = ID_GENERATOR_IMAGE_UPLOADS)
+    @SequenceGenerator(name = ID_GENERATOR_IMAGE_UPLOADS,
+            sequenceName = ID_GENERATOR_IMAGE_UPLOADS_SEQUENCE,
+            schema = "gallery",
+            allocationSize = 100,
+            initialValue = 5000
+    )
+    Long id;
+
+    @Column(name = "user_id", nullable = false)
+    Long userId;
+
+    @Column(nullable = false, length = 100, unique = true)
+    String s3key;
+
+    @Column(nullable = false, length = 1000)
+    String description;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    String contentType;
+
+    @Column(name = "content_length", nullable = false)
+    Long contentLength;
+
+    @Column(name = "expires_at", nullable = false)
+    Instant expiresAt;
+
+}
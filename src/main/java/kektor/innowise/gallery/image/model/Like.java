@@ -4,10 +4,10 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
-import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import lombok.AccessLevel;
@@ -23,17 +23,8 @@ import lombok.experimental.FieldDefaults;
         uniqueConstraints = @UniqueConstraint(columnNames = {"image_id", "user_id"}))
 public class Like {
 
-    static final String ID_GENERATOR_LIKES = "ID_GENERATOR_LIKES";
-    static final String ID_GENERATOR_SEQUENCE_NAME = "id_likes_sequence_generator";
-
     @Id
-    @GeneratedValue(generator = ID_GENERATOR_LIKES)
-    @SequenceGenerator(name = ID_GENERATOR_LIKES,
-            sequenceName = ID_GENERATOR_SEQUENCE_NAME,
-            schema = "gallery",
-            allocationSize = 100,
-            initialValue = 5000
-    )
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -0,0 +1,68 @@
+package kektor.innowise.gallery.image.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "outbox_events", schema = "gallery")
+public class OutboxEvent {
+
+    static final String ID_GENERATOR_OUTBOX_EVENTS = "ID_GENERATOR_OUTBOX_EVENTS";
+    static final String ID_GENERATOR_OUTBOX_EVENTS_SEQUENCE = "id_outbox_events_sequence_generator";
+
+    @Id
+    @GeneratedValue(generator = ID_GENERATOR_OUTBOX_EVENTS)
+    @SequenceGenerator(name = ID_GENERATOR_OUTBOX_EVENTS,
+            sequenceName = ID_GENERATOR_OUTBOX_EVENTS_SEQUENCE,
+            schema = "gallery",
+            allocationSize = 100,
+            initialValue = 5000
+    )
+    Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 32)
+    Type eventType;
+
+    @Column(name = "image_id", nullable = false)
+    Long imageId;
+
+    @Column(name = "user_id")
+    Long userId;
+
+    @Column(columnDefinition = "TEXT")
+    String payload;
+
+    @Column(name = "created_at", nullable = false)
+    Instant createdAt = Instant.now();
+
+    @Column(name = "available_at", nullable = false)
+    Instant availableAt = createdAt;
+
+    @Column(nullable = false)
+    Integer attempts = 0;
+
+    @Column(name = "failed_at")
+    Instant failedAt;
+
+    public enum Type {
+        LIKE_EVENT,
+        IMAGE_DELETED
+    }
+
+}
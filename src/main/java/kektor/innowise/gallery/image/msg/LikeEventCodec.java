@@ -0,0 +1,98 @@
+package kektor.innowise.gallery.image.msg;
+
+import kektor.innowise.gallery.image.helper.VarIntReader;
+import kektor.innowise.gallery.image.helper.VarIntWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Compact binary form of {@link LikeEventMessage}:
+ * {@code [version][event type][presence bits][image id][user id][username][instant][image owner id][likes count]}.
+ * Numbers are zigzag varints, the username is length-prefixed UTF-8, and absent fields are only marked
+ * in the presence bits. The event type is written as its {@link LikeEventMessage.EventType#code() wire code},
+ * so reordering the enum does not change the format. The version byte is never a valid first byte of a JSON document.
+ */
+public class LikeEventCodec {
+
+    public static final byte VERSION_1 = 1;
+
+    static final int IMAGE_ID_PRESENT = 1;
+    static final int USER_ID_PRESENT = 1 << 1;
+    static final int USERNAME_PRESENT = 1 << 2;
+    static final int INSTANT_PRESENT = 1 << 3;
+    static final int IMAGE_OWNER_ID_PRESENT = 1 << 4;
+    static final int LIKES_COUNT_PRESENT = 1 << 5;
+
+    static final byte NO_EVENT_TYPE = 0;
+    static final int MAX_FIXED_SIZE = 3 + 6 * 10;
+
+    public static byte[] encode(LikeEventMessage event) {
+        byte[] username = event.username() != null ?
+                event.username().getBytes(StandardCharsets.UTF_8) :
+                null;
+        VarIntWriter out = new VarIntWriter(MAX_FIXED_SIZE + (username != null ? username.length + 5 : 0));
+        out.writeByte(VERSION_1);
+        out.writeByte(event.eventType() != null ? event.eventType().code() : NO_EVENT_TYPE);
+        out.writeByte((event.imageId() != null ? IMAGE_ID_PRESENT : 0)
+                | (event.userId() != null ? USER_ID_PRESENT : 0)
+                | (username != null ? USERNAME_PRESENT : 0)
+                | (event.instant() != null ? INSTANT_PRESENT : 0)
+                | (event.imageOwnerId() != null ? IMAGE_OWNER_ID_PRESENT : 0)
+                | (event.likesCount() != null ? LIKES_COUNT_PRESENT : 0));
+        if (event.imageId() != null) {
+            out.writeVarLong(event.imageId());
+        }
+        if (event.userId() != null) {
+            out.writeVarLong(event.userId());
+        }
+        if (username != null) {
+            out.writeVarLong(username.length);
+            out.writeBytes(username);
+        }
+        if (event.instant() != null) {
+            out.writeVarLong(event.instant().getEpochSecond());
+            out.writeVarLong(event.instant().getNano());
+        }
+        if (event.imageOwnerId() != null) {
+            out.writeVarLong(event.imageOwnerId());
+        }
+        if (event.likesCount() != null) {
+            out.writeVarLong(event.likesCount());
+        }
+        return out.toByteArray();
+    }
+
+    public static LikeEventMessage decode(byte[] bytes) {
+        return decode(bytes, 0, bytes.length);
+    }
+
+    public static LikeEventMessage decode(byte[] bytes, int offset, int length) {
+        if (length < 3 || bytes[offset] != VERSION_1) {
+            throw new IllegalArgumentException("Unsupported like event encoding");
+        }
+        VarIntReader in = new VarIntReader(bytes, offset + 1, offset + length);
+        try {
+            int eventType = in.readByte();
+            int present = in.readByte();
+            LikeEventMessage event = LikeEventMessage.builder()
+                    .eventType(eventType != NO_EVENT_TYPE ? LikeEventMessage.EventType.ofCode(eventType) : null)
+                    .imageId((present & IMAGE_ID_PRESENT) != 0 ? in.readVarLong() : null)
+                    .userId((present & USER_ID_PRESENT) != 0 ? in.readVarLong() : null)
+                    .username((present & USERNAME_PRESENT) != 0 ? in.readString() : null)
+                    .instant((present & INSTANT_PRESENT) != 0 ?
+                            Instant.ofEpochSecond(in.readVarLong(), in.readVarLong()) :
+                            null)
+                    .imageOwnerId((present & IMAGE_OWNER_ID_PRESENT) != 0 ? in.readVarLong() : null)
+                    .likesCount((present & LIKES_COUNT_PRESENT) != 0 ? Math.toIntExact(in.readVarLong()) : null)
+                    .build();
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Trailing bytes after like event");
+            }
+            return event;
+        } catch (ArrayIndexOutOfBoundsException | ArithmeticException e) {
+            throw new IllegalArgumentException("Malformed like event of " + length + " bytes", e);
+        }
+    }
+
+}
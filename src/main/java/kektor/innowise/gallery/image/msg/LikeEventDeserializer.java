@@ -0,0 +1,43 @@
+package kektor.innowise.gallery.image.msg;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * Kafka value deserializer for like events written either by {@link LikeEventSerializer} or, before the binary
+ * encoding was rolled out, by {@code JsonSerializer}. The {@link LikeEventCodec} version byte is never the first byte
+ * of a JSON document, so the format is told apart per record and type headers are not needed.
+ */
+public class LikeEventDeserializer implements Deserializer<LikeEventMessage> {
+
+    private final JsonDeserializer<LikeEventMessage> jsonDeserializer =
+            new JsonDeserializer<>(LikeEventMessage.class, false);
+
+    @Override
+    public LikeEventMessage deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public LikeEventMessage deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        if (data[0] != LikeEventCodec.VERSION_1) {
+            return jsonDeserializer.deserialize(topic, data);
+        }
+        try {
+            return LikeEventCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Malformed like event on topic " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+
+}
@@ -14,9 +14,33 @@ public record LikeEventMessage(EventType eventType,
                                Long imageOwnerId,
                                Integer likesCount) {
 
+    /**
+     * Like event types with the codes they are written as by {@link LikeEventCodec}; a code is never reused.
+     */
     public enum EventType {
-        LIKE,
-        REMOVE_LIKE
+
+        LIKE(1),
+        REMOVE_LIKE(2);
+
+        private final int code;
+
+        EventType(int code) {
+            this.code = code;
+        }
+
+        public static EventType ofCode(int code) {
+            for (EventType eventType : values()) {
+                if (eventType.code == code) {
+                    return eventType;
+                }
+            }
+            throw new IllegalArgumentException("Unknown like event type " + code);
+        }
+
+        public int code() {
+            return code;
+        }
+
     }
 
 }
@@ -0,0 +1,16 @@
+package kektor.innowise.gallery.image.msg;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka value serializer writing {@link LikeEventMessage} in the versioned {@link LikeEventCodec} form.
+ * Selected with {@code spring.kafka.producer.value-serializer}; consumers read it with {@link LikeEventDeserializer}.
+ */
+public class LikeEventSerializer implements Serializer<LikeEventMessage> {
+
+    @Override
+    public byte[] serialize(String topic, LikeEventMessage event) {
+        return event != null ? LikeEventCodec.encode(event) : null;
+    }
+
+}
@@ -0,0 +1,51 @@
+package kektor.innowise.gallery.image.repository;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Feed orderings backed by an {@code (..., id DESC)} index, each completed with {@code id} as a tie-breaker
+ * in the direction of the leading order. Ascending orderings scan the same index backward.
+ */
+public enum FeedOrdering {
+
+    RECENT(Sort.Direction.DESC, "uploadedAt", "idx_images_recent", "idx_images_user_recent_id"),
+    OLDEST(Sort.Direction.ASC, "uploadedAt", "idx_images_recent", "idx_images_user_recent_id"),
+    MOST_LIKED(Sort.Direction.DESC, "likesCount", "idx_images_likes_count", "idx_images_user_likes_count_id"),
+    LEAST_LIKED(Sort.Direction.ASC, "likesCount", "idx_images_likes_count", "idx_images_user_likes_count_id");
+
+    private static final String ID_PROPERTY = "id";
+
+    private final Sort sort;
+    private final String index;
+    private final String ownerIndex;
+
+    FeedOrdering(Sort.Direction direction, String property, String index, String ownerIndex) {
+        this.sort = Sort.by(new Sort.Order(direction, property), new Sort.Order(direction, ID_PROPERTY));
+        this.index = index;
+        this.ownerIndex = ownerIndex;
+    }
+
+    /**
+     * Finds the ordering that equals the requested sort, with or without its trailing {@code id} order.
+     */
+    public static Optional<FeedOrdering> of(Sort requested) {
+        List<Sort.Order> orders = requested.toList();
+        return Arrays.stream(values())
+                .filter(ordering -> orders.equals(ordering.sort.toList())
+                        || orders.equals(ordering.sort.toList().subList(0, 1)))
+                .findFirst();
+    }
+
+    public Sort sort() {
+        return sort;
+    }
+
+    public String index(boolean ownerScoped) {
+        return ownerScoped ? ownerIndex : index;
+    }
+
+}
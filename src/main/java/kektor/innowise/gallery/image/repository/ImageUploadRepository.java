@@ -0,0 +1,38 @@
+package kektor.innowise.gallery.image.repository;
+
+import kektor.innowise.gallery.image.model.ImageUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ImageUploadRepository extends JpaRepository<ImageUpload, Long> {
+
+    Optional<ImageUpload> findByIdAndUserId(Long id, Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImageUpload u WHERE u.id = :uploadId AND u.expiresAt > :now")
+    int claim(@Param("uploadId") Long uploadId, @Param("now") Instant now);
+
+    @Transactional
+    @Query(value = """
+            DELETE FROM gallery.image_uploads
+            WHERE id IN (SELECT id
+                         FROM gallery.image_uploads
+                         WHERE expires_at <= :now
+                         ORDER BY expires_at
+                         LIMIT :batchSize
+                         FOR UPDATE SKIP LOCKED)
+            RETURNING s3key
+            """, nativeQuery = true)
+    List<String> deleteExpired(@Param("now") Instant now, @Param("batchSize") int batchSize);
+
+}
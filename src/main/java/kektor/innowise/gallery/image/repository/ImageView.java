@@ -0,0 +1,16 @@
+package kektor.innowise.gallery.image.repository;
+
+import java.time.Instant;
+
+/**
+ * Read-only image row together with whether the requesting user liked it.
+ */
+public record ImageView(
+        Long id,
+        Long userId,
+        String s3key,
+        String description,
+        Instant uploadedAt,
+        Integer likesCount,
+        boolean liked) {
+}
@@ -0,0 +1,11 @@
+package kektor.innowise.gallery.image.repository;
+
+public interface LikeChange {
+
+    Long getImageOwnerId();
+
+    Integer getLikesCount();
+
+    Boolean getChanged();
+
+}
@@ -7,9 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 @Repository
 public interface LikeRepository extends JpaRepository<Like, Long> {
@@ -20,8 +18,37 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
     @Query("DELETE FROM Like l WHERE l.id = :likeId")
     int deleteLikeById(@Param("likeId") Long id);
 
-    @Query("select i.image.id from Like i where i.userId=:userId and i.image.id in :imageIds")
-    Set<Long> findLikedImagesIdByUserFromSpecific(@Param("userId") Long userId, @Param("imageIds") List<Long> imageIds);
-
     boolean existsByImageIdAndUserId(Long imageId, Long userId);
+
+    @Query(value = """
+            WITH inserted AS (
+                INSERT INTO gallery.likes (image_id, user_id)
+                SELECT i.id, :userId
+                FROM gallery.images i
+                WHERE i.id = :imageId
+                ON CONFLICT (image_id, user_id) DO NOTHING
+                RETURNING image_id
+            )
+            SELECT i.user_id AS "imageOwnerId",
+                   i.likes_count AS "likesCount",
+                   EXISTS (SELECT 1 FROM inserted) AS "changed"
+            FROM gallery.images i
+            WHERE i.id = :imageId
+            """, nativeQuery = true)
+    Optional<LikeChange> insertLike(@Param("imageId") Long imageId, @Param("userId") Long userId);
+
+    @Query(value = """
+            WITH deleted AS (
+                DELETE FROM gallery.likes
+                WHERE image_id = :imageId AND user_id = :userId
+                RETURNING image_id
+            )
+            SELECT i.user_id AS "imageOwnerId",
+                   i.likes_count AS "likesCount",
+                   EXISTS (SELECT 1 FROM deleted) AS "changed"
+            FROM gallery.images i
+            WHERE i.id = :imageId
+            """, nativeQuery = true)
+    Optional<LikeChange> deleteLike(@Param("imageId") Long imageId, @Param("userId") Long userId);
+
 }
@@ -0,0 +1,105 @@
+package kektor.innowise.gallery.image.repository;
+
+import kektor.innowise.gallery.image.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Leases up to {@code batchSize} available events until {@code leaseUntil}. Rows locked by another relay
+     * are skipped, and a leased row is only claimed again once its lease has expired. Dead-lettered rows
+     * are never claimed.
+     */
+    @Transactional
+    @Query(value = """
+            UPDATE gallery.outbox_events
+            SET available_at = :leaseUntil, attempts = attempts + 1
+            WHERE id IN (SELECT id
+                         FROM gallery.outbox_events
+                         WHERE available_at <= :now
+                           AND failed_at IS NULL
+                         ORDER BY available_at, id
+                         LIMIT :batchSize
+                         FOR UPDATE SKIP LOCKED)
+            RETURNING *
+            """, nativeQuery = true)
+    List<OutboxEvent> claim(@Param("now") Instant now,
+                            @Param("leaseUntil") Instant leaseUntil,
+                            @Param("batchSize") int batchSize);
+
+    /**
+     * Locks the latest like event of the user on the image that is still waiting out its coalescing window.
+     * A row being claimed by a relay is skipped, so it is never merged after it has been dispatched.
+     */
+    @Query(value = """
+            SELECT *
+            FROM gallery.outbox_events
+            WHERE event_type = 'LIKE_EVENT'
+              AND image_id = :imageId
+              AND user_id = :userId
+              AND attempts = 0
+              AND available_at > :now
+            ORDER BY id DESC
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    Optional<OutboxEvent> findPendingLikeEvent(@Param("imageId") Long imageId,
+                                               @Param("userId") Long userId,
+                                               @Param("now") Instant now);
+
+    /**
+     * Extends the lease of events held elsewhere, such as in the like event journal, until {@code leaseUntil}.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE gallery.outbox_events
+            SET available_at = :leaseUntil
+            WHERE id IN (:ids)
+            """, nativeQuery = true)
+    int extendLease(@Param("ids") Collection<Long> ids,
+                    @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Moves events that have used up {@code maxAttempts} to the dead-letter state, where they are kept
+     * for inspection but no longer claimed, and returns how many were moved.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE gallery.outbox_events
+            SET failed_at = :now
+            WHERE id IN (:ids)
+              AND attempts >= :maxAttempts
+              AND failed_at IS NULL
+            """, nativeQuery = true)
+    int markFailed(@Param("ids") Collection<Long> ids,
+                   @Param("now") Instant now,
+                   @Param("maxAttempts") int maxAttempts);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE gallery.outbox_events
+            SET available_at = :now + make_interval(
+                    secs => LEAST(:maxBackoffMillis, :backoffMillis * power(2, attempts - 1)) / 1000.0)
+            WHERE id IN (:ids)
+              AND failed_at IS NULL
+            """, nativeQuery = true)
+    int reschedule(@Param("ids") Collection<Long> ids,
+                   @Param("now") Instant now,
+                   @Param("backoffMillis") long backoffMillis,
+                   @Param("maxBackoffMillis") long maxBackoffMillis);
+
+}
@@ -1,6 +1,12 @@
 package kektor.innowise.gallery.image.repository;
 
 import kektor.innowise.gallery.image.model.Image;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.time.Instant;
 
 public interface UtilityRepositoryFragment {
 
@@ -8,4 +14,19 @@ public interface UtilityRepositoryFragment {
 
     Image findByIdAuthorized(Long imageId, Long userId);
 
+    ImageView findViewByIdExceptionally(Long imageId, Long userId);
+
+    /**
+     * Keyset-scrolls image rows as {@link ImageView}s without loading {@link Image} entities.
+     * The sort must be a {@link FeedOrdering}, with or without its {@code id} tie-breaker; it runs as a native
+     * row-value keyset query backed by the ordering's index. {@code ownerId} and {@code uploadedAfter} are optional
+     * filters, and the liked flag is resolved for {@code viewerId}.
+     */
+    Window<ImageView> findAllViews(Long ownerId,
+                                   Instant uploadedAfter,
+                                   Long viewerId,
+                                   KeysetScrollPosition scrollPosition,
+                                   Sort sort,
+                                   Limit limit);
+
 }
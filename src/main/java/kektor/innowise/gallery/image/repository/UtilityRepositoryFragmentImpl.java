@@ -2,12 +2,51 @@ package kektor.innowise.gallery.image.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
 import kektor.innowise.gallery.image.exception.ImageNotFoundException;
+import kektor.innowise.gallery.image.exception.InvalidCursorParameter;
 import kektor.innowise.gallery.image.exception.NonAuthorizedImageAccessException;
 import kektor.innowise.gallery.image.model.Image;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class UtilityRepositoryFragmentImpl implements UtilityRepositoryFragment {
 
+    private static final String IMAGE_VIEW_SELECT = """
+            SELECT new kektor.innowise.gallery.image.repository.ImageView(
+                i.id, i.userId, i.s3key, i.description, i.uploadedAt, i.likesCount,
+                CASE WHEN EXISTS (SELECT 1 FROM Like l WHERE l.image.id = i.id AND l.userId = :viewerId)
+                     THEN true ELSE false END)
+            FROM Image i
+            """;
+    private static final String IMAGE_VIEW_QUERY = IMAGE_VIEW_SELECT + "WHERE i.id = :imageId";
+    private static final String IMAGE_VIEW_NATIVE_SELECT = """
+            SELECT i.id, i.user_id, i.s3key, i.description, i.uploaded_at, i.likes_count,
+                   EXISTS (SELECT 1 FROM gallery.likes l WHERE l.image_id = i.id AND l.user_id = :viewerId) AS liked
+            FROM gallery.images i
+            """;
+    private static final String ID_PROPERTY = "id";
+    private static final Map<String, Function<ImageView, Object>> KEYSET_PROPERTIES = Map.of(
+            ID_PROPERTY, ImageView::id,
+            "uploadedAt", ImageView::uploadedAt,
+            "likesCount", ImageView::likesCount);
+    private static final Map<String, String> ROW_VALUE_COLUMNS = Map.of(
+            ID_PROPERTY, "i.id",
+            "uploadedAt", "i.uploaded_at",
+            "likesCount", "i.likes_count");
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -28,4 +67,114 @@ public class UtilityRepositoryFragmentImpl implements UtilityRepositoryFragment
         }
         return image;
     }
+
+    @Override
+    public ImageView findViewByIdExceptionally(Long imageId, Long userId) {
+        return entityManager.createQuery(IMAGE_VIEW_QUERY, ImageView.class)
+                .setParameter("imageId", imageId)
+                .setParameter("viewerId", userId)
+                .getResultStream()
+                .findFirst()
+                .orElseThrow(() -> new ImageNotFoundException(imageId));
+    }
+
+    @Override
+    public Window<ImageView> findAllViews(Long ownerId,
+                                          Instant uploadedAfter,
+                                          Long viewerId,
+                                          KeysetScrollPosition scrollPosition,
+                                          Sort sort,
+                                          Limit limit) {
+        List<Sort.Order> orders = keysetOrders(sort);
+        boolean backward = scrollPosition.scrollsBackward();
+        boolean keyed = !scrollPosition.isInitial();
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("viewerId", viewerId);
+        if (ownerId != null) {
+            parameters.put("ownerId", ownerId);
+        }
+        if (uploadedAfter != null) {
+            parameters.put("uploadedAfter", uploadedAfter);
+        }
+        if (keyed) {
+            putKeysetParameters(parameters, orders, scrollPosition.getKeys());
+        }
+
+        Query query = entityManager.createNativeQuery(
+                rowValueQuery(orders, ownerId != null, uploadedAfter != null, keyed, backward),
+                Image.IMAGE_VIEW_MAPPING);
+        parameters.forEach(query::setParameter);
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max() + 1);
+        }
+        @SuppressWarnings("unchecked")
+        List<ImageView> views = query.getResultList();
+        boolean hasNext = limit.isLimited() && views.size() > limit.max();
+        List<ImageView> content = hasNext ? views.subList(0, limit.max()) : views;
+        List<ImageView> window = backward ? content.reversed() : content;
+        return Window.from(window,
+                index -> ScrollPosition.of(keyset(window.get(index), orders), scrollPosition.getDirection()),
+                hasNext);
+    }
+
+    /**
+     * Native SQL for a {@link FeedOrdering}, which shares one direction over {@code uploadedAt} or {@code likesCount}
+     * and {@code id}: the keyset is a single row-value comparison, so PostgreSQL can seek in the matching
+     * {@code (..., id DESC)} index instead of evaluating an OR-expanded predicate.
+     */
+    static String rowValueQuery(List<Sort.Order> orders,
+                                boolean ownerFiltered,
+                                boolean uploadedAfterFiltered,
+                                boolean keyed,
+                                boolean backward) {
+        StringBuilder sql = new StringBuilder(IMAGE_VIEW_NATIVE_SELECT).append("WHERE 1 = 1");
+        if (ownerFiltered) {
+            sql.append(" AND i.user_id = :ownerId");
+        }
+        if (uploadedAfterFiltered) {
+            sql.append(" AND i.uploaded_at > :uploadedAfter");
+        }
+        boolean ascending = orders.getFirst().isAscending() != backward;
+        if (keyed) {
+            sql.append(" AND (")
+                    .append(orders.stream()
+                            .map(order -> ROW_VALUE_COLUMNS.get(order.getProperty()))
+                            .collect(Collectors.joining(", ")))
+                    .append(ascending ? ") > (" : ") < (")
+                    .append(IntStream.range(0, orders.size())
+                            .mapToObj(k -> ":keyset" + k)
+                            .collect(Collectors.joining(", ")))
+                    .append(')');
+        }
+        sql.append(orders.stream()
+                .map(order -> ROW_VALUE_COLUMNS.get(order.getProperty()) + (ascending ? " ASC" : " DESC"))
+                .collect(Collectors.joining(", ", " ORDER BY ", "")));
+        return sql.toString();
+    }
+
+    private static List<Sort.Order> keysetOrders(Sort sort) {
+        return FeedOrdering.of(sort)
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort: " + sort))
+                .sort()
+                .toList();
+    }
+
+    private static void putKeysetParameters(Map<String, Object> parameters,
+                                            List<Sort.Order> orders,
+                                            Map<String, ?> keys) {
+        for (int k = 0; k < orders.size(); k++) {
+            String property = orders.get(k).getProperty();
+            Object value = keys.get(property);
+            if (value == null) {
+                throw new InvalidCursorParameter(property, null);
+            }
+            parameters.put("keyset" + k, value);
+        }
+    }
+
+    private static Map<String, Object> keyset(ImageView view, List<Sort.Order> orders) {
+        Map<String, Object> keys = LinkedHashMap.newLinkedHashMap(orders.size());
+        orders.forEach(order -> keys.put(order.getProperty(), KEYSET_PROPERTIES.get(order.getProperty()).apply(view)));
+        return keys;
+    }
 }
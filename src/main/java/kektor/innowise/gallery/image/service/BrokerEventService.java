@@ -1,44 +1,254 @@
 package kektor.innowise.gallery.image.service;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import kektor.innowise.gallery.image.msg.LikeEventMessage;
-import lombok.AccessLevel;
-import lombok.RequiredArgsConstructor;
-import lombok.experimental.FieldDefaults;
-import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.retry.support.RetryTemplate;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.event.TransactionPhase;
-import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking like-event publisher: events wait in a bounded lock-free queue and are handed to the producer
+ * by the offering thread or the publisher thread, with at most {@code max-in-flight} unacknowledged sends.
+ * Send callbacks run on the Kafka producer I/O thread and only record the outcome; handing further events
+ * to the producer, which may block for {@code max.block.ms}, and spilling to the journal happen on the publisher
+ * thread. Every outcome is reported as a {@link Delivery} of the outbox row the event came from.
+ * <p>
+ * Sends are not retried here: the idempotent producer already retries them in order until {@code delivery.timeout.ms},
+ * and a retry queued behind newer events would reorder the likes of an image. An event that still fails is spilled
+ * to the {@link LikeEventJournal}, and while the journal holds or is about to hold events new ones are appended
+ * behind them, so they reach Kafka in order once the journal is replayed.
+ * <p>
+ * The outbox is authoritative: a journaled event keeps its outbox row until the replay has sent it, so an event
+ * in a lost, corrupted or not yet flushed journal is dispatched again from the outbox once the row's lease expires.
+ * A row dispatched again while its event is still journaled is not journaled twice. Delivery is at least once:
+ * an event sent shortly before a crash, before its outbox row was deleted, is sent again, and consumers rely on
+ * the absolute {@code likesCount} it carries rather than counting events.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class BrokerEventService {
 
-    RetryTemplate retryTemplate;
-    KafkaTemplate<Long, LikeEventMessage> kafkaTemplate;
-
-    @NonFinal
-    @Value("${app.broker.like-event-topic}")
-    String likeEventTopic;
-
-    @Async
-    @TransactionalEventListener(
-            classes = LikeEventMessage.class,
-            phase = TransactionPhase.AFTER_COMMIT
-    )
-    public void newLikeEvent(LikeEventMessage event) {
-        retryTemplate.execute(_ -> kafkaTemplate.send(likeEventTopic, event.imageId(), event).join(),
-                context -> {
-                    log.error("All retry attempts failed for sending like event. : ImageId: {} UserId: {} Type: {}",
-                            event.imageId(), event.userId(), event.eventType(), context.getLastThrowable());
-                    return null;
-                });
+    static final String QUEUED_METER = "like.events.queued";
+    static final String IN_FLIGHT_METER = "like.events.in.flight";
+
+    private final KafkaTemplate<Long, LikeEventMessage> kafkaTemplate;
+    private final LikeEventJournal journal;
+    private final String likeEventTopic;
+    private final int capacity;
+    private final int maxInFlight;
+    private final int replayBatchSize;
+    private final ConcurrentLinkedQueue<Publication> queue = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Publication> spills = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Delivery> deliveries = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Executor publisherExecutor;
+
+    @Autowired
+    public BrokerEventService(KafkaTemplate<Long, LikeEventMessage> kafkaTemplate,
+                              LikeEventJournal journal,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.broker.like-event-topic}") String likeEventTopic,
+                              @Value("${app.broker.publisher.capacity}") int capacity,
+                              @Value("${app.broker.publisher.max-in-flight}") int maxInFlight,
+                              @Value("${app.broker.journal.replay-batch-size}") int replayBatchSize) {
+        this(kafkaTemplate, journal, meterRegistry, likeEventTopic, capacity, maxInFlight, replayBatchSize,
+                Executors.newSingleThreadExecutor(Thread.ofPlatform().name("like-event-publisher").factory()));
+    }
+
+    BrokerEventService(KafkaTemplate<Long, LikeEventMessage> kafkaTemplate,
+                       LikeEventJournal journal,
+                       MeterRegistry meterRegistry,
+                       String likeEventTopic,
+                       int capacity,
+                       int maxInFlight,
+                       int replayBatchSize,
+                       Executor publisherExecutor) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.journal = journal;
+        this.likeEventTopic = likeEventTopic;
+        this.capacity = capacity;
+        this.maxInFlight = maxInFlight;
+        this.replayBatchSize = replayBatchSize;
+        this.publisherExecutor = publisherExecutor;
+        Gauge.builder(QUEUED_METER, queued, AtomicInteger::get)
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METER, inFlight, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the event of an outbox row for sending; returns {@code false} without queueing it when the queue is full.
+     */
+    public boolean offer(Long outboxId, LikeEventMessage event) {
+        if (!spills.isEmpty() || !journal.isEmpty()) {
+            spills.add(new Publication(outboxId, event));
+            publish();
+            return true;
+        }
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            return false;
+        }
+        queue.add(new Publication(outboxId, event));
+        drain();
+        return true;
+    }
+
+    /**
+     * Removes and returns the outcomes of sends completed since the previous call.
+     */
+    public List<Delivery> pollDeliveries() {
+        List<Delivery> completed = new ArrayList<>();
+        Delivery delivery;
+        while ((delivery = deliveries.poll()) != null) {
+            completed.add(delivery);
+        }
+        return completed;
+    }
+
+    /**
+     * Replays the journal oldest first in batches, acknowledging the longest sent prefix of each batch.
+     * Replay goes on with the next batch as long as every event was sent and the journal still holds events,
+     * since new events are appended behind the backlog until it is drained.
+     */
+    @Scheduled(fixedDelayString = "${app.broker.journal.replay-interval}")
+    public void replayJournal() {
+        List<LikeEventJournal.Entry> batch;
+        do {
+            batch = journal.peek(replayBatchSize);
+        } while (!batch.isEmpty() && replay(batch) && !journal.isEmpty());
+    }
+
+    /**
+     * Sends the entries and waits for the outcome; returns whether all of them were sent.
+     */
+    private boolean replay(List<LikeEventJournal.Entry> entries) {
+        List<CompletableFuture<?>> sends = entries.stream()
+                .<CompletableFuture<?>>map(entry -> sendNow(entry.event()))
+                .toList();
+        Throwable error = CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                .handle((_, failure) -> failure)
+                .join();
+        int sent = 0;
+        while (sent < sends.size() && !sends.get(sent).isCompletedExceptionally()) {
+            sent++;
+        }
+        if (sent > 0) {
+            journal.acknowledge(entries.get(sent - 1).nextPosition());
+            entries.subList(0, sent)
+                    .forEach(entry -> deliveries.add(new Delivery(entry.outboxId(), Delivery.Status.SENT)));
+        }
+        if (error != null) {
+            log.warn("Replayed {} of {} journaled like events", sent, sends.size(), error);
+        }
+        return sent == sends.size();
+    }
+
+    @PreDestroy
+    void close() {
+        if (publisherExecutor instanceof ExecutorService executorService) {
+            executorService.close();
+        }
+    }
+
+    private void publish() {
+        try {
+            publisherExecutor.execute(this::spillAndDrain);
+        } catch (RejectedExecutionException e) {
+            log.warn("Like event publisher is shut down, leaving pending events to the outbox");
+        }
+    }
+
+    /**
+     * Spills failed events to the journal in the order they failed, forcing them to disk once for the whole group,
+     * then hands queued events to the producer.
+     */
+    private void spillAndDrain() {
+        List<Long> journaled = new ArrayList<>();
+        Publication spilled;
+        while ((spilled = spills.poll()) != null) {
+            if (journal.append(spilled.outboxId(), spilled.event())) {
+                journaled.add(spilled.outboxId());
+            } else {
+                deliveries.add(new Delivery(spilled.outboxId(), Delivery.Status.FAILED));
+            }
+        }
+        if (!journaled.isEmpty()) {
+            journal.flush();
+            journaled.forEach(outboxId -> deliveries.add(new Delivery(outboxId, Delivery.Status.JOURNALED)));
+        }
+        drain();
+    }
+
+    private void drain() {
+        do {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                Publication publication;
+                while (inFlight.get() < maxInFlight && (publication = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    send(publication);
+                }
+            } finally {
+                draining.set(false);
+            }
+        } while (!queue.isEmpty() && inFlight.get() < maxInFlight);
+    }
+
+    private void send(Publication publication) {
+        inFlight.incrementAndGet();
+        sendNow(publication.event()).whenComplete((_, error) -> {
+            inFlight.decrementAndGet();
+            if (error == null) {
+                deliveries.add(new Delivery(publication.outboxId(), Delivery.Status.SENT));
+            } else {
+                log.warn("Failed to send like event of outbox event {}, spilling it to the journal",
+                        publication.outboxId(), error);
+                spills.add(publication);
+            }
+            publish();
+        });
+    }
+
+    private CompletableFuture<?> sendNow(LikeEventMessage event) {
+        try {
+            return kafkaTemplate.send(likeEventTopic, event.imageId(), event);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public record Delivery(Long outboxId, Status status) {
+
+        public enum Status {
+            SENT,
+            JOURNALED,
+            FAILED
+        }
+
+    }
+
+    private record Publication(Long outboxId, LikeEventMessage event) {
     }
 
 }
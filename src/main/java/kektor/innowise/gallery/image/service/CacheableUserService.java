@@ -1,34 +1,130 @@
 package kektor.innowise.gallery.image.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import kektor.innowise.gallery.image.cache.BatchCacheInvoker;
 import kektor.innowise.gallery.image.dto.UserDto;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import static kektor.innowise.gallery.image.conf.CacheConfig.USERS_CACHE_LOCAL;
-import static kektor.innowise.gallery.image.conf.CacheConfig.USERS_CACHE_REMOTE;
+import static kektor.innowise.gallery.image.conf.CacheConfig.MISSING_USERS_CACHE;
+import static kektor.innowise.gallery.image.conf.CacheConfig.USERS_CACHE;
 
+/**
+ * Caches existing users in {@code usersCache} and users the user service reported as missing
+ * in the short-lived, separately bounded {@code missingUsersCache}, so repeated lookups of unknown users
+ * do not reach the user service on every request.
+ * Renames and deletions happen in the user service and are never broadcast here, so a cached user is only
+ * corrected by a refresh-ahead reload or once it expires: the {@code usersCache} TTLs bound how long any node
+ * serves a stale user.
+ */
 @Service
 @Primary
 @RequiredArgsConstructor
-@CacheConfig(cacheNames = {USERS_CACHE_LOCAL, USERS_CACHE_REMOTE})
 public class CacheableUserService implements UserServiceClient {
 
+    static final String NEGATIVE_HITS_METER = "cache.negative.hits";
+    private static final String USER_ID_KEY_PREFIX = "by_id:";
+    private static final String USERNAME_KEY_PREFIX = "by_username:";
+
     private final UserServiceClient userServiceClient;
+    private final CacheManager cacheManager;
+    private final BatchCacheInvoker cacheInvoker;
+    private final MeterRegistry meterRegistry;
 
     @Override
-    @Cacheable(key = "'by_username:' + #username")
     public Optional<UserDto> fetchUser(String username) {
-        return userServiceClient.fetchUser(username);
+        return fetchCached(USERNAME_KEY_PREFIX + username, () -> userServiceClient.fetchUser(username));
     }
 
     @Override
-    @Cacheable(key = "'by_id:' + #userId")
     public Optional<UserDto> fetchUser(Long userId) {
-        return userServiceClient.fetchUser(userId);
+        return fetchCached(USER_ID_KEY_PREFIX + userId, () -> userServiceClient.fetchUser(userId));
+    }
+
+    @Override
+    public List<UserDto> fetchUsers(Collection<Long> userIds) {
+        Map<Long, Optional<UserDto>> users = cacheInvoker.getAll(userCaches(), userIds,
+                CacheableUserService::userIdKey,
+                this::loadUsers);
+        return users.values()
+                .stream()
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    private Optional<UserDto> fetchCached(String key, Supplier<Optional<UserDto>> loader) {
+        Cache users = cacheManager.getCache(USERS_CACHE);
+        Optional<UserDto> user = users == null ?
+                loadUser(key, loader) :
+                cacheInvoker.get(users, key, () -> loadUser(key, loader));
+        return user == null ? Optional.empty() : user;
+    }
+
+    /**
+     * Returns {@code null} for a missing user, so nothing is cached in {@code usersCache}
+     * and a refresh-ahead reload of a since deleted user evicts its stale entry.
+     */
+    private Optional<UserDto> loadUser(String key, Supplier<Optional<UserDto>> loader) {
+        Cache missingUsers = cacheManager.getCache(MISSING_USERS_CACHE);
+        if (missingUsers != null && !cacheInvoker.getAll(missingUsers, List.of(key)).isEmpty()) {
+            countNegativeHits(1);
+            return null;
+        }
+        Optional<UserDto> user = loader.get();
+        if (user.isEmpty()) {
+            if (missingUsers != null) {
+                cacheInvoker.putAll(missingUsers, Map.of(key, Optional.empty()));
+            }
+            return null;
+        }
+        return user;
+    }
+
+    private Map<Long, Optional<UserDto>> loadUsers(Collection<Long> userIds) {
+        Cache missingUsers = cacheManager.getCache(MISSING_USERS_CACHE);
+        Map<Object, Object> knownMissing = missingUsers == null ?
+                Map.of() :
+                cacheInvoker.getAll(missingUsers, userIds.stream().map(CacheableUserService::userIdKey).toList());
+        countNegativeHits(knownMissing.size());
+        List<Long> unknown = userIds.stream()
+                .filter(userId -> !knownMissing.containsKey(userIdKey(userId)))
+                .toList();
+        if (unknown.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Optional<UserDto>> users = userServiceClient.fetchUsers(unknown)
+                .stream()
+                .collect(Collectors.toMap(UserDto::id, Optional::of, (first, _) -> first));
+        Map<String, Optional<UserDto>> missing = unknown.stream()
+                .filter(userId -> !users.containsKey(userId))
+                .collect(Collectors.toMap(CacheableUserService::userIdKey, _ -> Optional.empty()));
+        if (missingUsers != null && !missing.isEmpty()) {
+            cacheInvoker.putAll(missingUsers, missing);
+        }
+        return users;
+    }
+
+    private static String userIdKey(Long userId) {
+        return USER_ID_KEY_PREFIX + userId;
+    }
+
+    private void countNegativeHits(int hits) {
+        meterRegistry.counter(NEGATIVE_HITS_METER, "cache", USERS_CACHE).increment(hits);
+    }
+
+    private List<Cache> userCaches() {
+        return Stream.ofNullable(cacheManager.getCache(USERS_CACHE))
+                .toList();
     }
 }
@@ -0,0 +1,35 @@
+package kektor.innowise.gallery.image.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import kektor.innowise.gallery.image.exception.UnsupportedSortException;
+import kektor.innowise.gallery.image.repository.FeedOrdering;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps a requested feed sort to one of the index-backed {@link FeedOrdering}s, so every window is scrolled
+ * with a stable {@code id} tie-breaker and never falls back to a sequential scan.
+ * An unsorted request gets {@link FeedOrdering#RECENT}; any other sort is rejected.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FeedSortPlanner {
+
+    static final String SORT_PLANS_METER = "feed.sort.plans";
+
+    private final MeterRegistry meterRegistry;
+
+    public FeedOrdering plan(Sort requested, boolean ownerScoped) {
+        FeedOrdering ordering = requested.isUnsorted() ?
+                FeedOrdering.RECENT :
+                FeedOrdering.of(requested).orElseThrow(() -> new UnsupportedSortException(requested));
+        String index = ordering.index(ownerScoped);
+        log.debug("Planned feed sort ({}) as {} over {}", requested, ordering, index);
+        meterRegistry.counter(SORT_PLANS_METER, "ordering", ordering.name(), "index", index).increment();
+        return ordering;
+    }
+
+}
@@ -4,15 +4,21 @@ import kektor.innowise.gallery.image.aspect.PublishLikeEvent;
 import kektor.innowise.gallery.image.dto.ImageDeleted;
 import kektor.innowise.gallery.image.dto.ImageDto;
 import kektor.innowise.gallery.image.dto.KeySetScrollRequest;
+import kektor.innowise.gallery.image.dto.LikeStateDto;
 import kektor.innowise.gallery.image.dto.UpdateRequestDto;
 import kektor.innowise.gallery.image.dto.UploadRequestDto;
 import kektor.innowise.gallery.image.dto.UserDto;
+import kektor.innowise.gallery.image.exception.ImageNotFoundException;
 import kektor.innowise.gallery.image.exception.UserNotFoundException;
 import kektor.innowise.gallery.image.exception.UsernameNotFoundException;
+import kektor.innowise.gallery.image.helper.VirtualThreadScope;
 import kektor.innowise.gallery.image.mapper.ImageMapper;
 import kektor.innowise.gallery.image.model.Image;
 import kektor.innowise.gallery.image.model.Like;
+import kektor.innowise.gallery.image.repository.FeedOrdering;
 import kektor.innowise.gallery.image.repository.ImageRepository;
+import kektor.innowise.gallery.image.repository.ImageView;
+import kektor.innowise.gallery.image.repository.LikeChange;
 import kektor.innowise.gallery.image.repository.LikeRepository;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -20,13 +26,16 @@ import lombok.experimental.FieldDefaults;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.event.TransactionPhase;
-import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -36,63 +45,61 @@ public class ImageService {
     ImageRepository imageRepository;
     LikeRepository likeRepository;
     S3ImageService s3Service;
-    CommentServiceClient commentService;
     UserServiceClient userService;
     SecurityService securityService;
     ApplicationEventPublisher eventPublisher;
     ImageMapper mapper;
+    LikeCounterBuffer likeCounter;
+    FeedSortPlanner sortPlanner;
 
-    @Transactional
     public ImageDto save(UploadRequestDto uploadRequest) {
         Long userId = currentUserId();
 
         String s3Key = s3Service.generateS3Key(uploadRequest.imageFile(), userId);
+        s3Service.uploadToS3(uploadRequest.imageFile(), s3Key);
 
         Image image = mapper.toModel(uploadRequest, userId, s3Key);
-        image = imageRepository.save(image);
+        return saveUploaded(image);
+    }
 
-        s3Service.uploadToS3(uploadRequest.imageFile(), s3Key);
+    public ImageDto saveUploaded(Long userId, String s3Key, String description) {
+        return saveUploaded(mapper.toModel(description, userId, s3Key));
+    }
 
+    /**
+     * Saves the image of an already uploaded S3 object within the caller's transaction.
+     * Unlike {@link #saveUploaded(Long, String, String)} nothing is removed from S3 on failure:
+     * the caller does that once the transaction has rolled back.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ImageDto saveClaimed(Long userId, String s3Key, String description) {
+        return enrichData(imageRepository.save(mapper.toModel(description, userId, s3Key)));
+    }
+
+    private ImageDto saveUploaded(Image image) {
+        try {
+            image = imageRepository.save(image);
+        } catch (RuntimeException e) {
+            s3Service.deleteFromS3(image.getS3key());
+            throw e;
+        }
         return enrichData(image);
     }
 
     @Transactional(readOnly = true)
     public ImageDto getById(Long imageId) {
-        Image image = imageRepository.findByIdExceptionally(imageId);
-        return enrichData(image, id ->
-                likeRepository.existsByImageIdAndUserId(id, currentUserId()));
+        ImageView image = imageRepository.findViewByIdExceptionally(imageId, currentUserId());
+        return enrichData(image);
     }
 
     @Transactional(readOnly = true)
     public Window<ImageDto> getAll(KeySetScrollRequest scrollRequest) {
-        Window<Image> result = scrollRequest.tillDate() == null ?
-                imageRepository.findAllFilteredBy(
-                        scrollRequest.scrollPosition(),
-                        scrollRequest.sort(),
-                        scrollRequest.limit()) :
-                imageRepository.findAllFilteredByUploadedAtAfter(
-                        scrollRequest.tillDate(),
-                        scrollRequest.scrollPosition(),
-                        scrollRequest.sort(),
-                        scrollRequest.limit());
-        return enrichData(result);
+        return getImages(null, scrollRequest);
     }
 
     @Transactional(readOnly = true)
     public Window<ImageDto> getUserImages(Long userId, KeySetScrollRequest scrollRequest) {
-        Window<Image> result = scrollRequest.tillDate() == null ?
-                imageRepository.findAllFilteredByUserId(
-                        userId,
-                        scrollRequest.scrollPosition(),
-                        scrollRequest.sort(),
-                        scrollRequest.limit()) :
-                imageRepository.findAllFilteredByUserIdAndUploadedAtAfter(
-                        userId,
-                        scrollRequest.tillDate(),
-                        scrollRequest.scrollPosition(),
-                        scrollRequest.sort(),
-                        scrollRequest.limit());
-        return enrichData(result);
+        return getImages(userId, scrollRequest);
     }
 
     @Transactional(readOnly = true)
@@ -103,6 +110,18 @@ public class ImageService {
         return getUserImages(userId, scrollRequest);
     }
 
+    private Window<ImageDto> getImages(Long ownerId, KeySetScrollRequest scrollRequest) {
+        FeedOrdering ordering = sortPlanner.plan(scrollRequest.sort(), ownerId != null);
+        Window<ImageView> result = imageRepository.findAllViews(
+                ownerId,
+                scrollRequest.tillDate(),
+                currentUserId(),
+                scrollRequest.scrollPosition(),
+                ordering.sort(),
+                scrollRequest.limit());
+        return enrichData(result);
+    }
+
     @PublishLikeEvent
     @Transactional
     public ImageDto likeImage(Long imageId) {
@@ -111,18 +130,43 @@ public class ImageService {
                 .ifPresentOrElse(
                         like -> {
                             if (likeRepository.deleteLikeById(like.getId()) > 0) {
-                                imageRepository.decrementLikes(imageId);
+                                likeCounter.add(imageId, -1);
                             }
                         },
                         () -> {
                             Like like = mapper.toModel(imageId, userId);
                             likeRepository.save(like);
-                            imageRepository.incrementLikes(imageId);
+                            likeCounter.add(imageId, 1);
                         }
                 );
         return getById(imageId);
     }
 
+    @PublishLikeEvent
+    @Transactional
+    public LikeStateDto putLike(Long imageId) {
+        LikeChange change = likeRepository.insertLike(imageId, currentUserId())
+                .orElseThrow(() -> new ImageNotFoundException(imageId));
+        return toLikeState(imageId, change, true);
+    }
+
+    @PublishLikeEvent
+    @Transactional
+    public LikeStateDto removeLike(Long imageId) {
+        LikeChange change = likeRepository.deleteLike(imageId, currentUserId())
+                .orElseThrow(() -> new ImageNotFoundException(imageId));
+        return toLikeState(imageId, change, false);
+    }
+
+    private LikeStateDto toLikeState(Long imageId, LikeChange change, boolean isLiked) {
+        if (change.getChanged()) {
+            likeCounter.add(imageId, isLiked ? 1 : -1);
+        }
+        long likesCount = change.getLikesCount() + likeCounter.pendingDelta(imageId);
+        return new LikeStateDto(imageId, change.getImageOwnerId(), Math.toIntExact(likesCount),
+                isLiked, change.getChanged());
+    }
+
     @Transactional
     public ImageDto updatePost(Long imageId, UpdateRequestDto updateRequest) {
         Image image = imageRepository.findByIdAuthorized(imageId, currentUserId());
@@ -135,7 +179,7 @@ public class ImageService {
     public void deletePost(Long imageId) {
         imageRepository.findByIdAuthorized(imageId, currentUserId());
         imageRepository.deleteById(imageId);
-        eventPublisher.publishEvent(new ImageDeleted(imageId));
+        eventPublisher.publishEvent(new ImageDeleted(imageId, securityService.currentUser()));
     }
 
     @Transactional(readOnly = true)
@@ -144,17 +188,28 @@ public class ImageService {
         return enrichData(image);
     }
 
-    @TransactionalEventListener(classes = ImageDeleted.class, phase = TransactionPhase.AFTER_COMMIT)
-    public void clearOrphanComments(ImageDeleted event) {
-        commentService.deleteImageComments(event.imageId());
+    private Window<ImageDto> enrichData(Window<ImageView> images) {
+        try (VirtualThreadScope scope = new VirtualThreadScope()) {
+            Supplier<Map<Long, String>> usernames = scope.fork(() -> fetchUsernames(images));
+            Supplier<Map<String, String>> urls = scope.fork(() -> s3Service.getSignedUrlsForImages(images.stream()
+                    .map(ImageView::s3key)
+                    .toList()));
+            return images.map(image -> enrichData(image,
+                    urls.get().get(image.s3key()),
+                    userId -> Optional.ofNullable(usernames.get().get(userId))));
+        }
     }
 
-    private Window<ImageDto> enrichData(Window<Image> images) {
-        List<Long> imageIds = images.stream()
-                .map(Image::getId)
-                .toList();
-        Set<Long> likedImageIds = likeRepository.findLikedImagesIdByUserFromSpecific(currentUserId(), imageIds);
-        return images.map(image -> enrichData(image, likedImageIds::contains));
+    private Map<Long, String> fetchUsernames(Window<ImageView> images) {
+        Set<Long> userIds = images.stream()
+                .map(ImageView::userId)
+                .collect(Collectors.toSet());
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return userService.fetchUsers(userIds)
+                .stream()
+                .collect(Collectors.toMap(UserDto::id, UserDto::username, (first, _) -> first));
     }
 
     private ImageDto enrichData(Image image) {
@@ -162,11 +217,39 @@ public class ImageService {
     }
 
     private ImageDto enrichData(Image image, Predicate<Long> isLiked) {
-        String url = s3Service.getSignedUrlForImage(image.getS3key());
-        String username = userService.fetchUser(image.getUserId())
-                .map(UserDto::username)
+        return enrichData(image,
+                s3Service.getSignedUrlForImage(image.getS3key()),
+                userId -> userService.fetchUser(userId).map(UserDto::username),
+                isLiked);
+    }
+
+    private ImageDto enrichData(Image image,
+                                String url,
+                                Function<Long, Optional<String>> usernameResolver,
+                                Predicate<Long> isLiked) {
+        String username = usernameResolver.apply(image.getUserId())
                 .orElseThrow(() -> new UserNotFoundException(image.getUserId()));
-        return mapper.toDto(image, username, url, isLiked.test(image.getId()));
+        return withPendingLikes(image.getId(), mapper.toDto(image, username, url, isLiked.test(image.getId())));
+    }
+
+    private ImageDto enrichData(ImageView image) {
+        return enrichData(image,
+                s3Service.getSignedUrlForImage(image.s3key()),
+                userId -> userService.fetchUser(userId).map(UserDto::username));
+    }
+
+    private ImageDto enrichData(ImageView image,
+                                String url,
+                                Function<Long, Optional<String>> usernameResolver) {
+        String username = usernameResolver.apply(image.userId())
+                .orElseThrow(() -> new UserNotFoundException(image.userId()));
+        return withPendingLikes(image.id(), mapper.toDto(image, username, url));
+    }
+
+    private ImageDto withPendingLikes(Long imageId, ImageDto imageDto) {
+        long pendingLikes = likeCounter.pendingDelta(imageId);
+        return pendingLikes == 0 ? imageDto :
+                mapper.withLikesCount(imageDto, Math.toIntExact(imageDto.likesCount() + pendingLikes));
     }
 
     Long currentUserId() {
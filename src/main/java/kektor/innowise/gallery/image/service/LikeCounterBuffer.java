@@ -0,0 +1,128 @@
+package kektor.innowise.gallery.image.service;
+
+import jakarta.annotation.PreDestroy;
+import kektor.innowise.gallery.image.repository.ImageRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for {@code images.likes_count}: deltas are collected in memory
+ * and applied by periodic batched updates instead of locking the image row on every like.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class LikeCounterBuffer {
+
+    ImageRepository imageRepository;
+    ConcurrentHashMap<Long, Delta> deltas = new ConcurrentHashMap<>();
+
+    @NonFinal
+    @Value("${app.likes.flush-batch-size}")
+    int flushBatchSize;
+
+    public void add(Long imageId, long delta) {
+        addPending(imageId, delta);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        addPending(imageId, -delta);
+                    }
+                }
+            });
+        }
+    }
+
+    public long pendingDelta(Long imageId) {
+        Delta delta = deltas.get(imageId);
+        return delta == null ? 0 : delta.pending() + delta.flushing();
+    }
+
+    @Scheduled(fixedDelayString = "${app.likes.flush-interval}")
+    public synchronized void flush() {
+        List<Long> imageIds = new ArrayList<>();
+        deltas.forEach((imageId, delta) -> {
+            if (delta.pending() != 0) {
+                imageIds.add(imageId);
+            }
+        });
+        imageIds.sort(null);
+        for (int from = 0; from < imageIds.size(); from += flushBatchSize) {
+            flushBatch(imageIds.subList(from, Math.min(from + flushBatchSize, imageIds.size())));
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Moves each pending delta to the flushing side of its entry in one atomic step,
+     * so {@link #pendingDelta} never misses or double counts a delta that is being written.
+     */
+    private void flushBatch(List<Long> imageIds) {
+        List<Long> ids = new ArrayList<>(imageIds.size());
+        List<Long> flushed = new ArrayList<>(imageIds.size());
+        for (Long imageId : imageIds) {
+            deltas.computeIfPresent(imageId, (_, delta) -> {
+                if (delta.pending() == 0) {
+                    return delta;
+                }
+                ids.add(imageId);
+                flushed.add(delta.pending());
+                return new Delta(0, delta.flushing() + delta.pending());
+            });
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        boolean applied = false;
+        try {
+            imageRepository.addLikes(ids.toArray(Long[]::new), flushed.toArray(Long[]::new));
+            applied = true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush like counters of {} images, retrying on next flush", ids.size(), e);
+        } finally {
+            for (int i = 0; i < ids.size(); i++) {
+                long amount = flushed.get(i);
+                long restored = applied ? 0 : amount;
+                deltas.computeIfPresent(ids.get(i), (_, delta) ->
+                        new Delta(delta.pending() + restored, delta.flushing() - amount).orNull());
+            }
+        }
+    }
+
+    private void addPending(Long imageId, long amount) {
+        deltas.compute(imageId, (_, delta) -> delta == null ?
+                new Delta(amount, 0).orNull() :
+                new Delta(delta.pending() + amount, delta.flushing()).orNull());
+    }
+
+    /**
+     * Likes of one image not yet handed to the database, and those being written by the running flush.
+     */
+    private record Delta(long pending, long flushing) {
+
+        Delta orNull() {
+            return pending == 0 && flushing == 0 ? null : this;
+        }
+
+    }
+
+}
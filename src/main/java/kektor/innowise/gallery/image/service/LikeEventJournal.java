@@ -0,0 +1,233 @@
+package kektor.innowise.gallery.image.service;
+
+import jakarta.annotation.PreDestroy;
+import kektor.innowise.gallery.image.msg.LikeEventCodec;
+import kektor.innowise.gallery.image.msg.LikeEventMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped spill file for like events that could not be sent while the broker is unavailable.
+ * <p>
+ * Layout: a header of {@code [read position][write position]} followed by records
+ * {@code [length][outbox id][LikeEventCodec bytes][crc32c]}. Records are read back in append order, the read position
+ * only moves past acknowledged records, and the segment is reset once every record has been acknowledged.
+ * Appends only write to the mapped segment, which survives a crash of the process; the writer groups its appends
+ * and calls {@link #flush()} once per group to force them to the file, so they also survive a crash of the host.
+ * Records from the first corrupted one on are discarded, on startup as well as when they are read,
+ * and their outbox rows are dispatched again once their lease expires.
+ * <p>
+ * The journal only buffers events in order while the broker is down; the outbox row stays the record of an event
+ * until the replay has sent it. A row that is dispatched again while its event is still journaled, because
+ * its lease ran out first, is not appended a second time, so the replay sends it once.
+ */
+@Slf4j
+@Component
+public class LikeEventJournal {
+
+    static final int HEADER_SIZE = 2 * Long.BYTES;
+    static final int RECORD_OVERHEAD = 2 * Integer.BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer segment;
+    private final ArrayDeque<Held> held = new ArrayDeque<>();
+    private final Set<Long> heldIds = new HashSet<>();
+    private long readPosition;
+    private long writePosition;
+    private long flushedPosition;
+
+    public LikeEventJournal(@Value("${app.broker.journal.file}") Path file,
+                            @Value("${app.broker.journal.segment-size}") DataSize segmentSize) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize.toBytes());
+        recover();
+    }
+
+    public synchronized boolean isEmpty() {
+        return readPosition == writePosition;
+    }
+
+    /**
+     * Appends the event of an outbox row without forcing it; returns {@code false} when the segment has no room left
+     * for it. The event of an outbox row that is already held is not appended again.
+     */
+    public synchronized boolean append(Long outboxId, LikeEventMessage event) {
+        if (heldIds.contains(outboxId)) {
+            return true;
+        }
+        byte[] encoded = LikeEventCodec.encode(event);
+        byte[] record = ByteBuffer.allocate(Long.BYTES + encoded.length)
+                .putLong(outboxId)
+                .put(encoded)
+                .array();
+        if (writePosition + RECORD_OVERHEAD + record.length > segment.capacity()) {
+            return false;
+        }
+        int position = (int) writePosition;
+        segment.putInt(position, record.length);
+        segment.put(position + Integer.BYTES, record);
+        segment.putInt(position + Integer.BYTES + record.length, checksum(record));
+        writePosition = position + RECORD_OVERHEAD + record.length;
+        segment.putLong(Long.BYTES, writePosition);
+        hold(outboxId, writePosition);
+        return true;
+    }
+
+    /**
+     * Forces the records appended since the previous flush and the header to the file.
+     */
+    public synchronized void flush() {
+        if (flushedPosition < writePosition) {
+            segment.force((int) flushedPosition, (int) (writePosition - flushedPosition));
+        }
+        segment.force(0, HEADER_SIZE);
+        flushedPosition = writePosition;
+    }
+
+    /**
+     * Returns up to {@code maxRecords} unacknowledged records, oldest first.
+     */
+    public synchronized List<Entry> peek(int maxRecords) {
+        List<Entry> entries = new ArrayList<>();
+        long position = readPosition;
+        while (position < writePosition && entries.size() < maxRecords) {
+            Entry entry = readEntry(position);
+            if (entry == null) {
+                log.warn("Discarding {} bytes of corrupted like event journal", writePosition - position);
+                truncate(position);
+                break;
+            }
+            entries.add(entry);
+            position = entry.nextPosition();
+        }
+        return entries;
+    }
+
+    /**
+     * Marks every record before {@code nextPosition} as sent and resets the segment once nothing is left.
+     */
+    public synchronized void acknowledge(long nextPosition) {
+        if (nextPosition <= readPosition || nextPosition > writePosition) {
+            return;
+        }
+        readPosition = nextPosition;
+        while (!held.isEmpty() && held.peekFirst().nextPosition() <= readPosition) {
+            heldIds.remove(held.pollFirst().outboxId());
+        }
+        if (readPosition == writePosition) {
+            truncate(HEADER_SIZE);
+        }
+        segment.putLong(0, readPosition);
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        segment.force();
+        channel.close();
+    }
+
+    private void recover() {
+        long storedRead = segment.getLong(0);
+        long storedWrite = segment.getLong(Long.BYTES);
+        if (storedRead < HEADER_SIZE || storedWrite < storedRead || storedWrite > segment.capacity()) {
+            storedRead = HEADER_SIZE;
+            storedWrite = HEADER_SIZE;
+        }
+        long position = storedRead;
+        while (position < storedWrite) {
+            byte[] record = readRecord(position, storedWrite);
+            if (record == null) {
+                log.warn("Discarding {} bytes of corrupted like event journal", storedWrite - position);
+                break;
+            }
+            position += RECORD_OVERHEAD + record.length;
+            hold(ByteBuffer.wrap(record).getLong(), position);
+        }
+        readPosition = storedRead;
+        writePosition = position;
+        segment.putLong(0, readPosition);
+        segment.putLong(Long.BYTES, writePosition);
+        flushedPosition = writePosition;
+        if (!isEmpty()) {
+            log.info("Recovered {} bytes of unsent like events from journal", writePosition - readPosition);
+        }
+    }
+
+    private Entry readEntry(long position) {
+        byte[] record = readRecord(position, writePosition);
+        if (record == null) {
+            return null;
+        }
+        try {
+            return new Entry(ByteBuffer.wrap(record).getLong(),
+                    LikeEventCodec.decode(record, Long.BYTES, record.length - Long.BYTES),
+                    position + RECORD_OVERHEAD + record.length);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void hold(Long outboxId, long nextPosition) {
+        held.addLast(new Held(outboxId, nextPosition));
+        heldIds.add(outboxId);
+    }
+
+    private void truncate(long position) {
+        while (!held.isEmpty() && held.peekLast().nextPosition() > position) {
+            heldIds.remove(held.pollLast().outboxId());
+        }
+        writePosition = position;
+        if (readPosition >= writePosition) {
+            readPosition = HEADER_SIZE;
+            writePosition = HEADER_SIZE;
+            segment.putLong(0, readPosition);
+        }
+        segment.putLong(Long.BYTES, writePosition);
+        flushedPosition = Math.min(flushedPosition, writePosition);
+    }
+
+    private byte[] readRecord(long position, long limit) {
+        if (position + RECORD_OVERHEAD > limit) {
+            return null;
+        }
+        int length = segment.getInt((int) position);
+        if (length <= Long.BYTES || position + RECORD_OVERHEAD + length > limit) {
+            return null;
+        }
+        byte[] record = new byte[length];
+        segment.get((int) position + Integer.BYTES, record);
+        int crc = segment.getInt((int) position + Integer.BYTES + length);
+        return crc == checksum(record) ? record : null;
+    }
+
+    private static int checksum(byte[] record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    public record Entry(Long outboxId, LikeEventMessage event, long nextPosition) {
+    }
+
+    private record Held(Long outboxId, long nextPosition) {
+    }
+
+}
@@ -0,0 +1,164 @@
+package kektor.innowise.gallery.image.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import kektor.innowise.gallery.image.model.OutboxEvent;
+import kektor.innowise.gallery.image.repository.OutboxEventRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dispatches {@code outbox_events} in leased batches: like events are queued on {@link BrokerEventService},
+ * image deletions go to the comment service as the user who deleted the image. Events are deleted once dispatched
+ * or acknowledged by Kafka (settled on the next poll); failed ones are retried with exponential backoff until they
+ * have been claimed {@code max-attempts} times, then dead-lettered: kept with {@code failed_at} set, counted
+ * in {@code outbox.events.failed} and never claimed again. Like events spilled to the journal stay leased
+ * for {@code journaled-lease} and are deleted once the journal replay has sent them.
+ * Relays on several instances never lease the same row at once, and a row leased by a crashed instance
+ * becomes available again when its lease expires. Like events only become available once their coalescing window
+ * in {@link OutboxService} has passed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class OutboxRelay {
+
+    static final String FAILED_METER = "outbox.events.failed";
+
+    OutboxEventRepository outboxRepository;
+    OutboxService outboxService;
+    BrokerEventService brokerEventService;
+    CommentServiceClient commentService;
+    MeterRegistry meterRegistry;
+
+    @NonFinal
+    @Value("${app.outbox.batch-size}")
+    int batchSize;
+
+    @NonFinal
+    @Value("${app.outbox.lease}")
+    Duration lease;
+
+    @NonFinal
+    @Value("${app.outbox.journaled-lease}")
+    Duration journaledLease;
+
+    @NonFinal
+    @Value("${app.outbox.retry-backoff}")
+    Duration retryBackoff;
+
+    @NonFinal
+    @Value("${app.outbox.max-retry-backoff}")
+    Duration maxRetryBackoff;
+
+    @NonFinal
+    @Value("${app.outbox.max-attempts}")
+    int maxAttempts;
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval}")
+    public void relay() {
+        settleDeliveries();
+        List<OutboxEvent> batch;
+        do {
+            Instant now = Instant.now();
+            batch = outboxRepository.claim(now, now.plus(lease), batchSize);
+            if (!batch.isEmpty()) {
+                dispatch(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private void dispatch(List<OutboxEvent> batch) {
+        List<Long> dispatched = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            switch (event.getEventType()) {
+                case LIKE_EVENT -> {
+                    if (!offerLikeEvent(event)) {
+                        failed.add(event.getId());
+                    }
+                }
+                case IMAGE_DELETED -> (deleteImageComments(event) ? dispatched : failed).add(event.getId());
+            }
+        }
+        complete(dispatched, failed);
+    }
+
+    private void settleDeliveries() {
+        List<Long> acknowledged = new ArrayList<>();
+        List<Long> journaled = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        for (BrokerEventService.Delivery delivery : brokerEventService.pollDeliveries()) {
+            switch (delivery.status()) {
+                case SENT -> acknowledged.add(delivery.outboxId());
+                case JOURNALED -> journaled.add(delivery.outboxId());
+                case FAILED -> failed.add(delivery.outboxId());
+            }
+        }
+        if (!journaled.isEmpty()) {
+            outboxRepository.extendLease(journaled, Instant.now().plus(journaledLease));
+        }
+        complete(acknowledged, failed);
+    }
+
+    private void complete(List<Long> dispatched, List<Long> failed) {
+        if (!dispatched.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(dispatched);
+        }
+        if (!failed.isEmpty()) {
+            Instant now = Instant.now();
+            int deadLettered = outboxRepository.markFailed(failed, now, maxAttempts);
+            if (deadLettered > 0) {
+                log.warn("Dead-lettered {} outbox events after {} attempts", deadLettered, maxAttempts);
+                meterRegistry.counter(FAILED_METER).increment(deadLettered);
+            }
+            outboxRepository.reschedule(failed, now, retryBackoff.toMillis(), maxRetryBackoff.toMillis());
+        }
+    }
+
+    private boolean offerLikeEvent(OutboxEvent event) {
+        try {
+            return brokerEventService.offer(event.getId(), outboxService.readLikeEvent(event));
+        } catch (RuntimeException e) {
+            log.warn("Failed to queue like event of outbox event {}", event.getId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * The relay runs without a request, so the protected comment service client gets the security context
+     * of the user who deleted the image.
+     */
+    private boolean deleteImageComments(OutboxEvent event) {
+        try {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            outboxService.readDeletedBy(event)
+                    .map(user -> UsernamePasswordAuthenticationToken.authenticated(user, null,
+                            AuthorityUtils.NO_AUTHORITIES))
+                    .ifPresent(context::setAuthentication);
+            new DelegatingSecurityContextRunnable(() -> commentService.deleteImageComments(event.getImageId()), context)
+                    .run();
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete comments of image {}, retrying with backoff", event.getImageId(), e);
+            return false;
+        }
+    }
+
+}
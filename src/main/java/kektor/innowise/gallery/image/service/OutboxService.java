@@ -0,0 +1,152 @@
+package kektor.innowise.gallery.image.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kektor.innowise.gallery.image.dto.ImageDeleted;
+import kektor.innowise.gallery.image.model.OutboxEvent;
+import kektor.innowise.gallery.image.msg.LikeEventMessage;
+import kektor.innowise.gallery.image.repository.OutboxEventRepository;
+import kektor.innowise.gallery.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Writes like and image-deleted events to {@code outbox_events} in the transaction that produced them,
+ * so they are dispatched by {@link OutboxRelay} exactly when the change commits.
+ * Outside a transaction the event is written in its own one rather than dropped.
+ * An image-deleted event keeps the user who deleted the image, so the relay calls the comment service on their behalf.
+ * <p>
+ * Like events are held back for {@code like-coalescing-window}; a toggle by the same user on the same image
+ * within the window is merged into the pending row: an opposite event cancels it, an event of the same type
+ * replaces its payload, so only the net change with the latest likes count is published.
+ */
+@Service
+public class OutboxService {
+
+    static final String RECEIVED_METER = "like.events.received";
+    static final String SUPPRESSED_METER = "like.events.suppressed";
+    static final String SUPPRESSION_RATIO_METER = "like.events.suppression.ratio";
+
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration coalescingWindow;
+    private final Counter receivedEvents;
+    private final Counter suppressedEvents;
+
+    public OutboxService(OutboxEventRepository outboxRepository,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.outbox.like-coalescing-window}") Duration coalescingWindow) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+        this.coalescingWindow = coalescingWindow;
+        this.receivedEvents = meterRegistry.counter(RECEIVED_METER);
+        this.suppressedEvents = meterRegistry.counter(SUPPRESSED_METER);
+        Gauge.builder(SUPPRESSION_RATIO_METER, this, OutboxService::suppressionRatio)
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(
+            classes = LikeEventMessage.class,
+            phase = TransactionPhase.BEFORE_COMMIT,
+            fallbackExecution = true
+    )
+    public void likeEvent(LikeEventMessage event) {
+        receivedEvents.increment();
+        Instant now = Instant.now();
+        Optional<OutboxEvent> pending = coalescible(event) ?
+                outboxRepository.findPendingLikeEvent(event.imageId(), event.userId(), now) :
+                Optional.empty();
+        if (pending.isPresent()) {
+            coalesce(pending.get(), event);
+            return;
+        }
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setEventType(OutboxEvent.Type.LIKE_EVENT);
+        outboxEvent.setImageId(event.imageId());
+        outboxEvent.setUserId(event.userId());
+        outboxEvent.setPayload(writePayload(event, event.imageId()));
+        outboxEvent.setAvailableAt(now.plus(coalescingWindow));
+        outboxRepository.save(outboxEvent);
+    }
+
+    @TransactionalEventListener(
+            classes = ImageDeleted.class,
+            phase = TransactionPhase.BEFORE_COMMIT,
+            fallbackExecution = true
+    )
+    public void imageDeleted(ImageDeleted event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setEventType(OutboxEvent.Type.IMAGE_DELETED);
+        outboxEvent.setImageId(event.imageId());
+        if (event.deletedBy() != null) {
+            outboxEvent.setUserId(event.deletedBy().id());
+            outboxEvent.setPayload(writePayload(event.deletedBy(), event.imageId()));
+        }
+        outboxRepository.save(outboxEvent);
+    }
+
+    public LikeEventMessage readLikeEvent(OutboxEvent outboxEvent) {
+        return readPayload(outboxEvent, LikeEventMessage.class);
+    }
+
+    /**
+     * Returns the user who deleted the image of an image-deleted event, if it was recorded.
+     */
+    public Optional<UserPrincipal> readDeletedBy(OutboxEvent outboxEvent) {
+        return Optional.ofNullable(outboxEvent.getPayload())
+                .map(_ -> readPayload(outboxEvent, UserPrincipal.class));
+    }
+
+    /**
+     * The pending row stays locked until the surrounding transaction commits, so without one nothing is merged.
+     */
+    private boolean coalescible(LikeEventMessage event) {
+        return coalescingWindow.isPositive()
+                && event.userId() != null
+                && TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    private void coalesce(OutboxEvent pending, LikeEventMessage event) {
+        if (readLikeEvent(pending).eventType() != event.eventType()) {
+            outboxRepository.delete(pending);
+            suppressedEvents.increment(2);
+        } else {
+            pending.setPayload(writePayload(event, event.imageId()));
+            outboxRepository.save(pending);
+            suppressedEvents.increment();
+        }
+    }
+
+    private double suppressionRatio() {
+        double received = receivedEvents.count();
+        return received > 0 ? suppressedEvents.count() / received : 0;
+    }
+
+    private <T> T readPayload(OutboxEvent outboxEvent, Class<T> type) {
+        try {
+            return objectMapper.readValue(outboxEvent.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed payload of outbox event " + outboxEvent.getId(), e);
+        }
+    }
+
+    private String writePayload(Object payload, Long imageId) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write outbox event of image " + imageId, e);
+        }
+    }
+
+}
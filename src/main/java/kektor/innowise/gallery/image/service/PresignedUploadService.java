@@ -0,0 +1,130 @@
+package kektor.innowise.gallery.image.service;
+
+import kektor.innowise.gallery.image.dto.ImageDto;
+import kektor.innowise.gallery.image.dto.PresignedUploadDto;
+import kektor.innowise.gallery.image.dto.PresignedUploadRequestDto;
+import kektor.innowise.gallery.image.exception.ImageUploadNotFoundException;
+import kektor.innowise.gallery.image.exception.InvalidUploadRequestException;
+import kektor.innowise.gallery.image.mapper.ImageMapper;
+import kektor.innowise.gallery.image.model.ImageUpload;
+import kektor.innowise.gallery.image.repository.ImageUploadRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static kektor.innowise.gallery.image.helper.ImageUtils.isSupportedImage;
+import static kektor.innowise.gallery.image.service.S3ImageService.CACHE_CONTROL;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PresignedUploadService {
+
+    ImageUploadRepository uploadRepository;
+    ImageService imageService;
+    S3ImageService s3Service;
+    SecurityService securityService;
+    ImageMapper mapper;
+    TransactionOperations transactionOperations;
+
+    @NonFinal
+    @Value("${app.s3.presigned-upload.ttl}")
+    Duration uploadTtl;
+
+    @NonFinal
+    @Value("${app.s3.presigned-upload.purge-batch-size}")
+    int purgeBatchSize;
+
+    @NonFinal
+    @Value("${spring.servlet.multipart.max-file-size}")
+    DataSize maxFileSize;
+
+    public PresignedUploadDto reserve(PresignedUploadRequestDto uploadRequest) {
+        if (!isSupportedImage(uploadRequest.fileName(), uploadRequest.contentType())) {
+            throw new InvalidUploadRequestException("supported types: jpg, jpeg, png");
+        }
+        if (uploadRequest.contentLength() > maxFileSize.toBytes()) {
+            throw new InvalidUploadRequestException("image file exceeds " + maxFileSize);
+        }
+        Long userId = securityService.currentUserId();
+        String s3Key = s3Service.generateS3Key(uploadRequest.fileName(), userId);
+        Instant expiresAt = Instant.now().plus(uploadTtl);
+
+        ImageUpload upload = uploadRepository.save(mapper.toModel(uploadRequest, userId, s3Key, expiresAt));
+        URL url = s3Service.createSignedUploadUrl(s3Key, upload.getContentType(), upload.getContentLength(), uploadTtl);
+        return new PresignedUploadDto(
+                upload.getId(),
+                url.toString(),
+                HttpMethod.PUT.name(),
+                Map.of(HttpHeaders.CONTENT_TYPE, upload.getContentType(),
+                        HttpHeaders.CACHE_CONTROL, CACHE_CONTROL),
+                expiresAt);
+    }
+
+    /**
+     * Claims the reservation and inserts the image in one transaction, so a failed insert leaves the reservation
+     * to the purge job; the uploaded object is removed from S3 only after that transaction has rolled back.
+     */
+    public ImageDto complete(Long uploadId) {
+        Long userId = securityService.currentUserId();
+        ImageUpload upload = uploadRepository.findByIdAndUserId(uploadId, userId)
+                .filter(reserved -> reserved.getExpiresAt().isAfter(Instant.now()))
+                .orElseThrow(() -> new ImageUploadNotFoundException(uploadId));
+
+        HeadObjectResponse object = s3Service.headObject(upload.getS3key())
+                .orElseThrow(() -> new InvalidUploadRequestException("image file has not been uploaded yet"));
+        if (!matchesReservation(upload, object)) {
+            s3Service.deleteFromS3(upload.getS3key());
+            throw new InvalidUploadRequestException("uploaded file does not match the reserved type and size");
+        }
+
+        try {
+            return transactionOperations.execute(_ -> {
+                if (uploadRepository.claim(uploadId, Instant.now()) == 0) {
+                    throw new ImageUploadNotFoundException(uploadId);
+                }
+                return imageService.saveClaimed(userId, upload.getS3key(), upload.getDescription());
+            });
+        } catch (ImageUploadNotFoundException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            s3Service.deleteFromS3(upload.getS3key());
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.s3.presigned-upload.purge-interval}")
+    public void purgeExpired() {
+        List<String> s3Keys;
+        do {
+            s3Keys = uploadRepository.deleteExpired(Instant.now(), purgeBatchSize);
+            s3Keys.forEach(s3Service::deleteFromS3);
+            if (!s3Keys.isEmpty()) {
+                log.info("Purged {} expired image uploads", s3Keys.size());
+            }
+        } while (s3Keys.size() == purgeBatchSize);
+    }
+
+    private boolean matchesReservation(ImageUpload upload, HeadObjectResponse object) {
+        return upload.getContentLength().equals(object.contentLength())
+                && upload.getContentType().equalsIgnoreCase(object.contentType());
+    }
+
+}
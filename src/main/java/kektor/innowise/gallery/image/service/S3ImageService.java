@@ -2,22 +2,41 @@ package kektor.innowise.gallery.image.service;
 
 import io.awspring.cloud.s3.ObjectMetadata;
 import io.awspring.cloud.s3.S3Template;
+import kektor.innowise.gallery.image.cache.BatchCacheInvoker;
 import kektor.innowise.gallery.image.exception.ImageUploadException;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
-import static kektor.innowise.gallery.image.conf.CacheConfig.URLS_CACHE_LOCAL;
-import static kektor.innowise.gallery.image.conf.CacheConfig.URLS_CACHE_REMOTE;
+import static kektor.innowise.gallery.image.conf.CacheConfig.URLS_CACHE;
 import static kektor.innowise.gallery.image.helper.ImageUtils.extractExtension;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
@@ -25,14 +44,33 @@ public class S3ImageService {
 
     public static String S3_KEY_TEMPLATE = "users/%d/%s%s";
     static String IMAGES_BUCKET_NAME = "images";
+    static String CACHE_CONTROL = "public, max-age=86400";
 
     S3Template s3Template;
+    S3Client s3Client;
+    S3MultipartUploader multipartUploader;
+    S3UrlPresigner urlPresigner;
+    SignedUrlPolicy urlPolicy;
+    CacheManager cacheManager;
+    BatchCacheInvoker cacheInvoker;
+
+    @NonFinal
+    @Value("${app.s3.upload.multipart-threshold}")
+    DataSize multipartThreshold;
 
     public void uploadToS3(MultipartFile file, String s3Key) {
+        if (file.getSize() >= multipartThreshold.toBytes()) {
+            try {
+                uploadToS3(file.getInputStream(), s3Key, file.getContentType(), file.getOriginalFilename());
+                return;
+            } catch (IOException e) {
+                throw new ImageUploadException(file.getOriginalFilename());
+            }
+        }
         ObjectMetadata metadata = ObjectMetadata.builder()
                 .contentLength(file.getSize())
                 .contentType(file.getContentType())
-                .cacheControl("public, max-age=86400")
+                .cacheControl(CACHE_CONTROL)
                 .build();
         try {
             s3Template.upload(IMAGES_BUCKET_NAME, s3Key,
@@ -42,16 +80,63 @@ public class S3ImageService {
         }
     }
 
-    @Cacheable(cacheNames = {URLS_CACHE_LOCAL, URLS_CACHE_REMOTE})
+    public void uploadToS3(InputStream input, String s3Key, String contentType, String fileName) {
+        try {
+            multipartUploader.upload(IMAGES_BUCKET_NAME, s3Key, contentType, input);
+        } catch (IOException | SdkException e) {
+            throw new ImageUploadException(fileName);
+        }
+    }
+
+    public URL createSignedUploadUrl(String s3Key, String contentType, long contentLength, Duration ttl) {
+        ObjectMetadata metadata = ObjectMetadata.builder()
+                .contentLength(contentLength)
+                .cacheControl(CACHE_CONTROL)
+                .build();
+        return s3Template.createSignedPutURL(IMAGES_BUCKET_NAME, s3Key, ttl, metadata, contentType);
+    }
+
+    public Optional<HeadObjectResponse> headObject(String s3Key) {
+        try {
+            return Optional.of(s3Client.headObject(request -> request
+                    .bucket(IMAGES_BUCKET_NAME)
+                    .key(s3Key)));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        }
+    }
+
+    public void deleteFromS3(String s3Key) {
+        try {
+            s3Template.deleteObject(IMAGES_BUCKET_NAME, s3Key);
+        } catch (RuntimeException e) {
+            log.warn("Failed to remove orphaned S3 object: {}", s3Key, e);
+        }
+    }
+
+    @Cacheable(cacheNames = URLS_CACHE, sync = true)
     public String getSignedUrlForImage(String s3key) {
-        return s3Template.createSignedGetURL(IMAGES_BUCKET_NAME, s3key, Duration.ofHours(2))
-                .toString();
+        return urlPresigner.presignGetUrl(IMAGES_BUCKET_NAME, s3key, urlPolicy.signedAt(), urlPolicy.ttl());
+    }
+
+    public Map<String, String> getSignedUrlsForImages(Collection<String> s3keys) {
+        return cacheInvoker.getAll(urlCaches(), s3keys, Function.identity(),
+                misses -> urlPresigner.presignGetUrls(IMAGES_BUCKET_NAME, misses, urlPolicy.signedAt(), urlPolicy.ttl()));
     }
 
     public String generateS3Key(MultipartFile file, Long userId) {
-        String extension = extractExtension(file.getOriginalFilename());
+        return generateS3Key(file.getOriginalFilename(), userId);
+    }
+
+    public String generateS3Key(String fileName, Long userId) {
+        String extension = extractExtension(fileName);
         String key = UUID.randomUUID().toString();
         return S3_KEY_TEMPLATE.formatted(userId, key, extension);
     }
 
+    private List<Cache> urlCaches() {
+        return Stream.ofNullable(cacheManager.getCache(URLS_CACHE))
+                .toList();
+    }
+
 }
\ No newline at end of file
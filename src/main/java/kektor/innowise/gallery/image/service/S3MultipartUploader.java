@@ -0,0 +1,226 @@
+package kektor.innowise.gallery.image.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static kektor.innowise.gallery.image.service.S3ImageService.CACHE_CONTROL;
+
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class S3MultipartUploader {
+
+    static final DataSize MIN_PART_SIZE = DataSize.ofMegabytes(5);
+
+    S3Client s3Client;
+    int partSize;
+    int concurrency;
+    ExecutorService partExecutor;
+    RetryTemplate partRetryTemplate;
+
+    public S3MultipartUploader(S3Client s3Client,
+                               @Value("${app.s3.upload.part-size}") DataSize partSize,
+                               @Value("${app.s3.upload.concurrency}") int concurrency,
+                               @Value("${app.s3.upload.threads}") int threads,
+                               @Value("${app.s3.upload.max-part-attempts}") int maxPartAttempts) {
+        if (partSize.compareTo(MIN_PART_SIZE) < 0) {
+            throw new IllegalArgumentException("S3 multipart upload part size must be at least " + MIN_PART_SIZE
+                    + ", got " + partSize);
+        }
+        this.s3Client = s3Client;
+        this.partSize = Math.toIntExact(partSize.toBytes());
+        this.concurrency = concurrency;
+        this.partExecutor = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("S3-Part-Upload-", 0).daemon().factory());
+        this.partRetryTemplate = RetryTemplate.builder()
+                .maxAttempts(maxPartAttempts)
+                .exponentialBackoff(200, 2, 2000)
+                .retryOn(SdkException.class)
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        partExecutor.shutdownNow();
+    }
+
+    public void upload(String bucket, String s3Key, String contentType, InputStream input) throws IOException {
+        byte[] firstPart = input.readNBytes(partSize);
+        if (firstPart.length < partSize) {
+            putObject(bucket, s3Key, contentType, firstPart);
+            return;
+        }
+
+        String uploadId = s3Client.createMultipartUpload(request -> request
+                        .bucket(bucket)
+                        .key(s3Key)
+                        .contentType(contentType)
+                        .cacheControl(CACHE_CONTROL))
+                .uploadId();
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        AtomicBoolean failed = new AtomicBoolean();
+        try {
+            PartBuffers buffers = new PartBuffers();
+            byte[] buffer = firstPart;
+            int length = firstPart.length;
+            int partNumber = 1;
+            while (length > 0 && !failed.get()) {
+                parts.add(submitPart(bucket, s3Key, uploadId, partNumber++, buffer, length, buffers, failed));
+                buffer = buffers.acquire();
+                length = input.readNBytes(buffer, 0, partSize);
+            }
+            buffers.release(buffer);
+
+            List<CompletedPart> completedParts = parts.stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+            s3Client.completeMultipartUpload(request -> request
+                    .bucket(bucket)
+                    .key(s3Key)
+                    .uploadId(uploadId)
+                    .multipartUpload(upload -> upload.parts(completedParts)));
+        } catch (CompletionException e) {
+            abort(bucket, s3Key, uploadId, parts, failed);
+            throw partFailure(parts, e.getCause() instanceof RuntimeException cause ? cause : e);
+        } catch (IOException | RuntimeException e) {
+            abort(bucket, s3Key, uploadId, parts, failed);
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(bucket, s3Key, uploadId, parts, failed);
+            throw new InterruptedIOException("Multipart upload of " + s3Key + " interrupted");
+        }
+    }
+
+    private CompletableFuture<CompletedPart> submitPart(String bucket, String s3Key, String uploadId,
+                                                        int partNumber, byte[] buffer, int length,
+                                                        PartBuffers buffers, AtomicBoolean failed) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return partRetryTemplate.execute(_ -> {
+                    if (failed.get()) {
+                        throw new CancellationException("Multipart upload " + uploadId + " is being aborted");
+                    }
+                    return uploadPart(bucket, s3Key, uploadId, partNumber, buffer, length);
+                });
+            } catch (RuntimeException e) {
+                failed.set(true);
+                throw e;
+            } finally {
+                buffers.release(buffer);
+            }
+        }, partExecutor);
+    }
+
+    private void putObject(String bucket, String s3Key, String contentType, byte[] content) {
+        s3Client.putObject(request -> request
+                        .bucket(bucket)
+                        .key(s3Key)
+                        .contentType(contentType)
+                        .cacheControl(CACHE_CONTROL)
+                        .contentLength((long) content.length),
+                RequestBody.fromBytes(content));
+    }
+
+    private CompletedPart uploadPart(String bucket, String s3Key, String uploadId,
+                                     int partNumber, byte[] buffer, int length) {
+        String eTag = s3Client.uploadPart(request -> request
+                                .bucket(bucket)
+                                .key(s3Key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) length),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length))
+                .eTag();
+        return CompletedPart.builder()
+                .partNumber(partNumber)
+                .eTag(eTag)
+                .build();
+    }
+
+    /**
+     * Returns the failure of the first part that actually failed rather than being skipped by the abort.
+     */
+    private static RuntimeException partFailure(List<CompletableFuture<CompletedPart>> parts,
+                                                RuntimeException fallback) {
+        for (CompletableFuture<CompletedPart> part : parts) {
+            if (part.state() == Future.State.FAILED
+                    && part.exceptionNow() instanceof RuntimeException failure
+                    && !(failure instanceof CancellationException)) {
+                return failure;
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Stops parts that have not started yet and waits for running ones to settle before aborting, since
+     * cancelling a {@link CompletableFuture} does not stop its {@code uploadPart} call and a part landing after
+     * the abort would be stored (and billed) as an orphan.
+     */
+    private void abort(String bucket, String s3Key, String uploadId,
+                       List<CompletableFuture<CompletedPart>> parts, AtomicBoolean failed) {
+        failed.set(true);
+        CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                .handle((_, _) -> null)
+                .join();
+        try {
+            s3Client.abortMultipartUpload(request -> request
+                    .bucket(bucket)
+                    .key(s3Key)
+                    .uploadId(uploadId));
+        } catch (SdkException e) {
+            log.warn("Failed to abort multipart upload {} for S3 object: {}", uploadId, s3Key, e);
+        }
+    }
+
+    private final class PartBuffers {
+
+        final BlockingQueue<byte[]> free = new ArrayBlockingQueue<>(concurrency);
+        // the first part is read before the multipart upload is created
+        int allocated = 1;
+
+        byte[] acquire() throws InterruptedException {
+            byte[] buffer = free.poll();
+            if (buffer != null) {
+                return buffer;
+            }
+            if (allocated < concurrency) {
+                allocated++;
+                return new byte[partSize];
+            }
+            return free.take();
+        }
+
+        void release(byte[] buffer) {
+            free.offer(buffer);
+        }
+    }
+
+}
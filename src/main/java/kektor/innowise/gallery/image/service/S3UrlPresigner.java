@@ -0,0 +1,317 @@
+package kektor.innowise.gallery.image.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Query-string SigV4 presigner for S3 GET URLs.
+ * Keeps the derived signing key for the current day and reuses {@link Mac}/{@link MessageDigest}
+ * instances and buffers between calls, so signing a whole feed window costs one HMAC per URL.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class S3UrlPresigner {
+
+    static String ALGORITHM = "AWS4-HMAC-SHA256";
+    static String HMAC_SHA256 = "HmacSHA256";
+    static String SERVICE = "s3";
+    static String TERMINATOR = "aws4_request";
+    static String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    static Duration MAX_EXPIRY = Duration.ofDays(7);
+    static DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+    static char[] HEX = "0123456789abcdef".toCharArray();
+
+    AwsCredentialsProvider credentialsProvider;
+    String region;
+    String scheme;
+    String endpointHost;
+    boolean pathStyle;
+    Clock clock;
+    Queue<SignerState> signerStates = new ConcurrentLinkedQueue<>();
+
+    @NonFinal
+    volatile SigningKey signingKey;
+
+    @Autowired
+    public S3UrlPresigner(AwsCredentialsProvider credentialsProvider,
+                          S3Client s3Client,
+                          @Value("${spring.cloud.aws.s3.path-style-access-enabled:false}") boolean pathStyle) {
+        this(credentialsProvider,
+                s3Client.serviceClientConfiguration().region(),
+                s3Client.serviceClientConfiguration().endpointOverride().orElse(null),
+                pathStyle,
+                Clock.systemUTC());
+    }
+
+    S3UrlPresigner(AwsCredentialsProvider credentialsProvider, Region region, URI endpoint,
+                   boolean pathStyle, Clock clock) {
+        if (endpoint == null) {
+            endpoint = URI.create("https://s3." + region.id() + ".amazonaws.com");
+        }
+        this.credentialsProvider = credentialsProvider;
+        this.region = region.id();
+        this.scheme = endpoint.getScheme();
+        this.endpointHost = endpoint.getPort() == -1 || isDefaultPort(endpoint) ?
+                endpoint.getHost() :
+                endpoint.getHost() + ":" + endpoint.getPort();
+        this.pathStyle = pathStyle;
+        this.clock = clock;
+    }
+
+    public String presignGetUrl(String bucket, String s3Key, Duration expiry) {
+        return presignGetUrl(bucket, s3Key, clock.instant(), expiry);
+    }
+
+    public String presignGetUrl(String bucket, String s3Key, Instant signedAt, Duration expiry) {
+        return presignGetUrls(bucket, List.of(s3Key), signedAt, expiry).get(s3Key);
+    }
+
+    public Map<String, String> presignGetUrls(String bucket, Collection<String> s3Keys, Duration expiry) {
+        return presignGetUrls(bucket, s3Keys, clock.instant(), expiry);
+    }
+
+    public Map<String, String> presignGetUrls(String bucket, Collection<String> s3Keys, Instant signedAt, Duration expiry) {
+        if (expiry.isNegative() || expiry.isZero() || expiry.compareTo(MAX_EXPIRY) > 0) {
+            throw new IllegalArgumentException("Presigned URL expiry must be within (0, 7 days]: " + expiry);
+        }
+        AwsCredentials credentials = credentialsProvider.resolveCredentials();
+        String amzDate = AMZ_DATE.format(signedAt);
+        String date = amzDate.substring(0, 8);
+        SigningKey key = signingKey(credentials, date);
+        String scope = date + "/" + region + "/" + SERVICE + "/" + TERMINATOR;
+        String host = pathStyle ? endpointHost : bucket + "." + endpointHost;
+
+        StringBuilder query = new StringBuilder(256)
+                .append("X-Amz-Algorithm=").append(ALGORITHM)
+                .append("&X-Amz-Credential=");
+        encode(credentials.accessKeyId() + "/" + scope, query, false);
+        query.append("&X-Amz-Date=").append(amzDate)
+                .append("&X-Amz-Expires=").append(expiry.toSeconds());
+        if (credentials instanceof AwsSessionCredentials sessionCredentials) {
+            query.append("&X-Amz-Security-Token=");
+            encode(sessionCredentials.sessionToken(), query, false);
+        }
+        query.append("&X-Amz-SignedHeaders=host");
+
+        Batch batch = new Batch(
+                scheme + "://" + host,
+                pathStyle ? "/" + bucket + "/" : "/",
+                query.toString(),
+                "\n" + query + "\nhost:" + host + "\n\nhost\n" + UNSIGNED_PAYLOAD,
+                ALGORITHM + "\n" + amzDate + "\n" + scope + "\n",
+                key);
+
+        SignerState state = acquireState();
+        try {
+            Map<String, String> urls = HashMap.newHashMap(s3Keys.size());
+            for (String s3Key : s3Keys) {
+                urls.put(s3Key, sign(state, batch, s3Key));
+            }
+            return urls;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to presign S3 URL", e);
+        } finally {
+            signerStates.offer(state);
+        }
+    }
+
+    public static Instant expiresAt(String presignedUrl) {
+        int date = presignedUrl.indexOf("X-Amz-Date=");
+        int expires = presignedUrl.indexOf("X-Amz-Expires=");
+        if (date < 0 || expires < 0) {
+            throw new IllegalArgumentException("Not a SigV4 presigned URL: " + presignedUrl);
+        }
+        date += "X-Amz-Date=".length();
+        expires += "X-Amz-Expires=".length();
+        int expiresEnd = presignedUrl.indexOf('&', expires);
+        Instant signedAt = AMZ_DATE.parse(presignedUrl.substring(date, date + 16), Instant::from);
+        long seconds = Long.parseLong(presignedUrl, expires,
+                expiresEnd < 0 ? presignedUrl.length() : expiresEnd, 10);
+        return signedAt.plusSeconds(seconds);
+    }
+
+    private String sign(SignerState state, Batch batch, String s3Key) throws GeneralSecurityException {
+        StringBuilder path = state.path;
+        path.setLength(0);
+        path.append(batch.pathPrefix());
+        encode(s3Key, path, true);
+
+        StringBuilder text = state.text;
+        text.setLength(0);
+        text.append("GET\n").append(path).append(batch.canonicalSuffix());
+        state.sha256.update(state.asciiBytes(text), 0, text.length());
+        state.sha256.digest(state.hash, 0, state.hash.length);
+
+        text.setLength(0);
+        text.append(batch.stringToSignPrefix());
+        appendHex(state.hash, text);
+        Mac mac = state.mac(batch.key());
+        mac.update(state.asciiBytes(text), 0, text.length());
+        mac.doFinal(state.hash, 0);
+
+        text.setLength(0);
+        text.append(batch.origin()).append(path)
+                .append('?').append(batch.query())
+                .append("&X-Amz-Signature=");
+        appendHex(state.hash, text);
+        return text.toString();
+    }
+
+    private SigningKey signingKey(AwsCredentials credentials, String date) {
+        SigningKey current = signingKey;
+        if (current != null && current.matches(credentials, date)) {
+            return current;
+        }
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            byte[] key = ("AWS4" + credentials.secretAccessKey()).getBytes(StandardCharsets.UTF_8);
+            for (String part : List.of(date, region, SERVICE, TERMINATOR)) {
+                mac.init(new SecretKeySpec(key, HMAC_SHA256));
+                key = mac.doFinal(part.getBytes(StandardCharsets.UTF_8));
+            }
+            current = new SigningKey(credentials.accessKeyId(), credentials.secretAccessKey(), date,
+                    new SecretKeySpec(key, HMAC_SHA256));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to derive SigV4 signing key", e);
+        }
+        signingKey = current;
+        return current;
+    }
+
+    private SignerState acquireState() {
+        SignerState state = signerStates.poll();
+        if (state != null) {
+            return state;
+        }
+        try {
+            return new SignerState(Mac.getInstance(HMAC_SHA256), MessageDigest.getInstance("SHA-256"));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void encode(String value, StringBuilder target, boolean keepSlash) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (isUnreserved(c) || (keepSlash && c == '/')) {
+                target.append(c);
+            } else if (c < 0x80) {
+                appendEncoded((byte) c, target);
+            } else {
+                int end = Character.isHighSurrogate(c) && i + 1 < value.length() ? i + 2 : i + 1;
+                for (byte b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                    appendEncoded(b, target);
+                }
+                i = end - 1;
+            }
+        }
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.' || c == '~';
+    }
+
+    private static void appendEncoded(byte b, StringBuilder target) {
+        target.append('%')
+                .append(Character.toUpperCase(HEX[(b >> 4) & 0xF]))
+                .append(Character.toUpperCase(HEX[b & 0xF]));
+    }
+
+    private static void appendHex(byte[] bytes, StringBuilder target) {
+        for (byte b : bytes) {
+            target.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+    }
+
+    private static boolean isDefaultPort(URI endpoint) {
+        return ("https".equals(endpoint.getScheme()) && endpoint.getPort() == 443)
+                || ("http".equals(endpoint.getScheme()) && endpoint.getPort() == 80);
+    }
+
+    record SigningKey(String accessKeyId, String secretAccessKey, String date, SecretKeySpec key) {
+
+        boolean matches(AwsCredentials credentials, String date) {
+            return this.date.equals(date)
+                    && accessKeyId.equals(credentials.accessKeyId())
+                    && secretAccessKey.equals(credentials.secretAccessKey());
+        }
+
+        /**
+         * Leaves out the secret and the key derived from it, so a logged key or batch does not leak them.
+         */
+        @Override
+        public String toString() {
+            return "SigningKey[accessKeyId=" + accessKeyId + ", date=" + date + "]";
+        }
+    }
+
+    record Batch(String origin, String pathPrefix, String query, String canonicalSuffix,
+                 String stringToSignPrefix, SigningKey key) {
+    }
+
+    private static final class SignerState {
+
+        final Mac mac;
+        final MessageDigest sha256;
+        final StringBuilder path = new StringBuilder(128);
+        final StringBuilder text = new StringBuilder(1024);
+        final byte[] hash = new byte[32];
+        byte[] bytes = new byte[1024];
+        SigningKey macKey;
+
+        SignerState(Mac mac, MessageDigest sha256) {
+            this.mac = mac;
+            this.sha256 = sha256;
+        }
+
+        Mac mac(SigningKey key) throws InvalidKeyException {
+            if (macKey != key) {
+                mac.init(key.key());
+                macKey = key;
+            }
+            return mac;
+        }
+
+        byte[] asciiBytes(StringBuilder text) {
+            if (bytes.length < text.length()) {
+                bytes = new byte[Math.max(text.length(), bytes.length * 2)];
+            }
+            for (int i = 0; i < text.length(); i++) {
+                bytes[i] = (byte) text.charAt(i);
+            }
+            return bytes;
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+package kektor.innowise.gallery.image.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Decides when presigned GET URLs are signed and how long they may stay cached.
+ * In bucketed mode the signing time is aligned down to a bucket of {@code ttl / 2}, so every node
+ * produces the same URL for a key within a bucket and browsers/CDNs can reuse the cached image bytes.
+ * A cached URL always expires while it still has at least {@code ttl / 2} of validity left.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SignedUrlPolicy {
+
+    static Duration MIN_CACHE_TTL = Duration.ofMillis(1);
+
+    Duration ttl;
+    Duration minRemainingValidity;
+    boolean bucketed;
+    Clock clock;
+
+    @Autowired
+    public SignedUrlPolicy(@Value("${app.s3.signed-url.ttl}") Duration ttl,
+                           @Value("${app.s3.signed-url.bucketed}") boolean bucketed) {
+        this(ttl, bucketed, Clock.systemUTC());
+    }
+
+    SignedUrlPolicy(Duration ttl, boolean bucketed, Clock clock) {
+        if (ttl.toSeconds() < 2) {
+            throw new IllegalArgumentException("Signed URL ttl must be at least 2 seconds: " + ttl);
+        }
+        this.ttl = ttl;
+        this.minRemainingValidity = ttl.dividedBy(2);
+        this.bucketed = bucketed;
+        this.clock = clock;
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    public Instant signedAt() {
+        Instant now = clock.instant();
+        if (!bucketed) {
+            return now;
+        }
+        long bucketSeconds = minRemainingValidity.toSeconds();
+        return Instant.ofEpochSecond(Math.floorDiv(now.getEpochSecond(), bucketSeconds) * bucketSeconds);
+    }
+
+    public Duration cacheTtl(Object signedUrl) {
+        if (!(signedUrl instanceof String url)) {
+            return MIN_CACHE_TTL;
+        }
+        Instant cacheUntil = S3UrlPresigner.expiresAt(url).minus(minRemainingValidity);
+        Duration remaining = Duration.between(clock.instant(), cacheUntil);
+        return remaining.compareTo(MIN_CACHE_TTL) < 0 ? MIN_CACHE_TTL : remaining;
+    }
+
+}
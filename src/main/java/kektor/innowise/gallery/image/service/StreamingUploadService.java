@@ -0,0 +1,118 @@
+package kektor.innowise.gallery.image.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import kektor.innowise.gallery.image.dto.ImageDto;
+import kektor.innowise.gallery.image.exception.ImageUploadException;
+import kektor.innowise.gallery.image.exception.InvalidUploadRequestException;
+import kektor.innowise.gallery.image.helper.SizeLimitedInputStream;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static kektor.innowise.gallery.image.helper.ImageUtils.isSupportedImage;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class StreamingUploadService {
+
+    static String DESCRIPTION_FIELD = "description";
+    static String IMAGE_FILE_FIELD = "imageFile";
+    static int MAX_DESCRIPTION_LENGTH = 1000;
+    static int MAX_DESCRIPTION_BYTES = MAX_DESCRIPTION_LENGTH * 4;
+
+    ImageService imageService;
+    S3ImageService s3Service;
+    SecurityService securityService;
+
+    @NonFinal
+    @Value("${spring.servlet.multipart.max-file-size}")
+    DataSize maxFileSize;
+
+    @NonFinal
+    @Value("${spring.servlet.multipart.max-request-size}")
+    DataSize maxRequestSize;
+
+    public ImageDto save(HttpServletRequest request) {
+        if (!JakartaServletFileUpload.isMultipartContent(request)) {
+            throw new InvalidUploadRequestException("multipart/form-data body expected");
+        }
+        Long userId = securityService.currentUserId();
+        String description = null;
+        String s3Key = null;
+        try {
+            FileItemInputIterator parts = createFileUpload().getItemIterator(request);
+            while (parts.hasNext()) {
+                FileItemInput part = parts.next();
+                if (part.isFormField() && DESCRIPTION_FIELD.equals(part.getFieldName())) {
+                    description = readDescription(part);
+                } else if (!part.isFormField() && IMAGE_FILE_FIELD.equals(part.getFieldName())) {
+                    if (s3Key != null) {
+                        throw new InvalidUploadRequestException("only one image file is allowed");
+                    }
+                    if (!isSupportedImage(part.getName(), part.getContentType())) {
+                        throw new InvalidUploadRequestException("supported types: jpg, jpeg, png");
+                    }
+                    s3Key = s3Service.generateS3Key(part.getName(), userId);
+                    s3Service.uploadToS3(limited(part.getInputStream()), s3Key, part.getContentType(), part.getName());
+                }
+            }
+            if (s3Key == null) {
+                throw new InvalidUploadRequestException("image file is missing");
+            }
+            if (!StringUtils.hasText(description)) {
+                throw new InvalidUploadRequestException("description must not be blank");
+            }
+        } catch (IOException e) {
+            removeUploaded(s3Key);
+            throw new ImageUploadException(e.getMessage());
+        } catch (RuntimeException e) {
+            removeUploaded(s3Key);
+            throw e;
+        }
+        return imageService.saveUploaded(userId, s3Key, description);
+    }
+
+    private JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> createFileUpload() {
+        JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> fileUpload = new JakartaServletFileUpload<>();
+        fileUpload.setSizeMax(maxRequestSize.toBytes());
+        return fileUpload;
+    }
+
+    private InputStream limited(InputStream input) {
+        return new SizeLimitedInputStream(input, maxFileSize.toBytes(),
+                () -> new InvalidUploadRequestException("image file exceeds " + maxFileSize));
+    }
+
+    private String readDescription(FileItemInput part) throws IOException {
+        try (InputStream input = part.getInputStream()) {
+            byte[] bytes = input.readNBytes(MAX_DESCRIPTION_BYTES + 1);
+            String description = new String(bytes, StandardCharsets.UTF_8);
+            if (bytes.length > MAX_DESCRIPTION_BYTES || description.length() > MAX_DESCRIPTION_LENGTH) {
+                throw new InvalidUploadRequestException("description exceeds " + MAX_DESCRIPTION_LENGTH + " characters");
+            }
+            return description;
+        }
+    }
+
+    private void removeUploaded(String s3Key) {
+        if (s3Key != null) {
+            s3Service.deleteFromS3(s3Key);
+        }
+    }
+
+}
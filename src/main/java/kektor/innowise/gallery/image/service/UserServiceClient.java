@@ -3,9 +3,12 @@ package kektor.innowise.gallery.image.service;
 import kektor.innowise.gallery.image.dto.UserDto;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.service.annotation.GetExchange;
 import org.springframework.web.service.annotation.HttpExchange;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -14,6 +17,7 @@ public interface UserServiceClient {
 
     String USERNAME = "username";
     String USER_ID = "userId";
+    String USER_IDS = "userIds";
 
     @GetExchange("/username/{username}")
     Optional<UserDto> fetchUser(@PathVariable(USERNAME) String username);
@@ -21,4 +25,7 @@ public interface UserServiceClient {
     @GetExchange("/id/{userId}")
     Optional<UserDto> fetchUser(@PathVariable(USER_ID) Long userId);
 
-}
\ No newline at end of file
+    @GetExchange("/batch")
+    List<UserDto> fetchUsers(@RequestParam(USER_IDS) Collection<Long> userIds);
+
+}
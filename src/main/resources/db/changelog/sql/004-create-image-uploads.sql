@@ -0,0 +1,16 @@
+SET search_path TO gallery;
+
+CREATE SEQUENCE id_image_uploads_sequence_generator START WITH 5000 INCREMENT BY 100 CACHE 10;
+
+CREATE TABLE image_uploads
+(
+    id             bigint PRIMARY KEY,
+    user_id        bigint        NOT NULL,
+    s3key          VARCHAR(100)  NOT NULL UNIQUE,
+    description    VARCHAR(1000) NOT NULL,
+    content_type   VARCHAR(100)  NOT NULL,
+    content_length bigint        NOT NULL,
+    expires_at     timestamptz   NOT NULL
+);
+
+CREATE INDEX idx_image_uploads_expires_at ON image_uploads (expires_at);
\ No newline at end of file
@@ -0,0 +1,7 @@
+SET search_path TO gallery;
+
+CREATE INDEX idx_images_user_recent_id ON images (user_id, uploaded_at DESC, id DESC);
+CREATE INDEX idx_images_user_likes_count_id ON images (user_id, likes_count DESC, id DESC);
+
+DROP INDEX idx_images_user_recent;
+DROP INDEX idx_images_user_likes_count;
\ No newline at end of file
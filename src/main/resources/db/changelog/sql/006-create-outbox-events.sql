@@ -0,0 +1,17 @@
+SET search_path TO gallery;
+
+CREATE SEQUENCE id_outbox_events_sequence_generator START WITH 5000 INCREMENT BY 100 CACHE 10;
+
+CREATE TABLE outbox_events
+(
+    id           bigint      PRIMARY KEY,
+    event_type   VARCHAR(32) NOT NULL,
+    image_id     bigint      NOT NULL,
+    user_id      bigint,
+    payload      TEXT,
+    created_at   timestamptz NOT NULL,
+    available_at timestamptz NOT NULL,
+    attempts     int         NOT NULL DEFAULT 0
+);
+
+CREATE INDEX idx_outbox_events_available_at ON outbox_events (available_at, id);
\ No newline at end of file
@@ -0,0 +1,4 @@
+SET search_path TO gallery;
+
+CREATE INDEX idx_outbox_events_pending_likes ON outbox_events (image_id, user_id, id)
+    WHERE event_type = 'LIKE_EVENT' AND attempts = 0;
\ No newline at end of file
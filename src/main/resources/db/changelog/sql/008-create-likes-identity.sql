@@ -0,0 +1,11 @@
+SET search_path TO gallery;
+
+CREATE SEQUENCE id_likes_identity_sequence OWNED BY likes.id;
+
+SELECT setval('id_likes_identity_sequence',
+              GREATEST((SELECT COALESCE(MAX(id), 0) FROM likes),
+                       (SELECT last_value FROM id_likes_sequence_generator)));
+
+ALTER TABLE likes ALTER COLUMN id SET DEFAULT nextval('id_likes_identity_sequence');
+
+DROP SEQUENCE id_likes_sequence_generator;
\ No newline at end of file
@@ -0,0 +1,8 @@
+SET search_path TO gallery;
+
+ALTER TABLE outbox_events ADD COLUMN failed_at timestamptz;
+
+DROP INDEX idx_outbox_events_available_at;
+
+CREATE INDEX idx_outbox_events_available_at ON outbox_events (available_at, id)
+    WHERE failed_at IS NULL;
\ No newline at end of file
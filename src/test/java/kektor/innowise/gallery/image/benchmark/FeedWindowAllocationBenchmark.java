@@ -0,0 +1,119 @@
+package kektor.innowise.gallery.image.benchmark;
+
+import com.sun.management.ThreadMXBean;
+import jakarta.persistence.EntityManager;
+import kektor.innowise.gallery.image.model.Image;
+import kektor.innowise.gallery.image.repository.ImageRepository;
+import kektor.innowise.gallery.image.repository.ImageView;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures heap allocation per 100-row feed window: managed {@link Image} entities plus a separate liked-set query
+ * (the previous read path) against the {@link ImageView} projection with the liked flag resolved in the same query.
+ * Both paths run in a read-only transaction and clear the persistence context after every window.
+ * Not part of the regular test run: {@code mvn verify -Dit.test=FeedWindowAllocationBenchmark}.
+ */
+@Slf4j
+@DataJpaTest
+@Testcontainers
+@Transactional(readOnly = true)
+@Sql(scripts = {
+        "/sql/cleanup.sql",
+        "/sql/feed-window-data.sql"
+}, config = @SqlConfig(transactionMode = SqlConfig.TransactionMode.ISOLATED),
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class FeedWindowAllocationBenchmark {
+
+    static final int WINDOW_SIZE = 100;
+    static final int WARMUP_WINDOWS = 2_000;
+    static final int MEASURED_WINDOWS = 2_000;
+    static final Long VIEWER_ID = 1L;
+    static final Sort SORT = Sort.by(Sort.Direction.DESC, "uploadedAt");
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer(
+            DockerImageName.parse("postgres:18-alpine"))
+            .withDatabaseName("images_db")
+            .withUsername("testUser")
+            .withPassword("testPassword");
+
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    ImageRepository imageRepository;
+
+    @Test
+    void projectionAllocatesLessPerWindow_Than_ManagedEntities() {
+        long entityBytes = allocatedPerWindow(this::loadEntityWindow);
+        long projectionBytes = allocatedPerWindow(this::loadProjectionWindow);
+
+        log.info("Allocated per {}-row window: managed entities {} KB, projection {} KB",
+                WINDOW_SIZE, entityBytes / 1024, projectionBytes / 1024);
+        assertThat(projectionBytes).isLessThan(entityBytes);
+    }
+
+    int loadEntityWindow() {
+        List<Image> images = entityManager.createQuery(
+                        "SELECT i FROM Image i ORDER BY i.uploadedAt DESC, i.id ASC", Image.class)
+                .setMaxResults(WINDOW_SIZE + 1)
+                .getResultList();
+        List<Long> liked = entityManager.createQuery(
+                        "SELECT l.image.id FROM Like l WHERE l.userId = :userId AND l.image.id IN :imageIds", Long.class)
+                .setParameter("userId", VIEWER_ID)
+                .setParameter("imageIds", images.stream().map(Image::getId).toList())
+                .getResultList();
+        return images.size() + liked.size();
+    }
+
+    int loadProjectionWindow() {
+        Window<ImageView> views = imageRepository.findAllViews(null, null, VIEWER_ID,
+                ScrollPosition.keyset(), SORT, Limit.of(WINDOW_SIZE));
+        return views.size();
+    }
+
+    long allocatedPerWindow(WindowLoader loader) {
+        ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long rows = 0;
+        for (int i = 0; i < WARMUP_WINDOWS; i++) {
+            rows += loader.load();
+            entityManager.clear();
+        }
+        long before = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_WINDOWS; i++) {
+            rows += loader.load();
+            entityManager.clear();
+        }
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+        assertThat(rows).isPositive();
+        return allocated / MEASURED_WINDOWS;
+    }
+
+    @FunctionalInterface
+    interface WindowLoader {
+
+        int load();
+
+    }
+
+}
@@ -0,0 +1,126 @@
+package kektor.innowise.gallery.image.benchmark;
+
+import kektor.innowise.gallery.image.msg.LikeEventDeserializer;
+import kektor.innowise.gallery.image.msg.LikeEventMessage;
+import kektor.innowise.gallery.image.msg.LikeEventSerializer;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the like event value serializers on encode/decode time of one event.
+ * The {@code bytes} counter reports the record size of one event, including the type headers JSON adds.
+ * Not part of the regular test run: start {@link #main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LikeEventSerializerBenchmark {
+
+    static final String TOPIC = "like-events";
+
+    @Param({"binary", "json"})
+    String format;
+
+    Serializer<LikeEventMessage> serializer;
+    Deserializer<LikeEventMessage> deserializer;
+    LikeEventMessage event;
+    byte[] encoded;
+    Headers encodedHeaders;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RecordSize {
+
+        public long bytes;
+
+    }
+
+    @Setup
+    public void setUp() {
+        switch (format) {
+            case "binary" -> {
+                serializer = new LikeEventSerializer();
+                deserializer = new LikeEventDeserializer();
+            }
+            case "json" -> {
+                serializer = new JsonSerializer<>();
+                serializer.configure(Map.of(JsonSerializer.TYPE_MAPPINGS,
+                        "likeEvent:" + LikeEventMessage.class.getName()), false);
+                deserializer = new JsonDeserializer<>();
+                deserializer.configure(Map.of(
+                        JsonDeserializer.TYPE_MAPPINGS, "likeEvent:" + LikeEventMessage.class.getName(),
+                        JsonDeserializer.TRUSTED_PACKAGES, LikeEventMessage.class.getPackageName()), false);
+            }
+            default -> throw new IllegalArgumentException(format);
+        }
+        event = LikeEventMessage.builder()
+                .eventType(LikeEventMessage.EventType.LIKE)
+                .imageId(1_048_576L)
+                .userId(16_384L)
+                .username("firstUser")
+                .instant(Instant.parse("2026-01-01T10:15:30.123456Z"))
+                .imageOwnerId(8_192L)
+                .likesCount(1_024)
+                .build();
+        encodedHeaders = new RecordHeaders();
+        encoded = serializer.serialize(TOPIC, encodedHeaders, event);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] encode(RecordSize size) {
+        Headers headers = new RecordHeaders();
+        byte[] bytes = serializer.serialize(TOPIC, headers, event);
+        long headerBytes = 0;
+        for (var header : headers) {
+            headerBytes += header.key().length() + header.value().length;
+        }
+        size.bytes = bytes.length + headerBytes;
+        return bytes;
+    }
+
+    @Benchmark
+    public LikeEventMessage decode() {
+        return deserializer.deserialize(TOPIC, encodedHeaders, encoded);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LikeEventSerializerBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+}
@@ -0,0 +1,115 @@
+package kektor.innowise.gallery.image.benchmark;
+
+import kektor.innowise.gallery.image.service.S3UrlPresigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares presigning a feed window with {@link S3UrlPresigner} against the SDK {@link S3Presigner}.
+ * Run with {@code -prof gc} to see allocation per window.
+ * Not part of the regular test run: start {@link #main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class S3UrlPresignerBenchmark {
+
+    static final String BUCKET = "images";
+    static final Duration TTL = Duration.ofHours(2);
+    static final URI ENDPOINT = URI.create("http://localhost:4566");
+
+    @Param({"20", "100"})
+    int windowSize;
+
+    List<String> s3Keys;
+    S3Client s3Client;
+    S3UrlPresigner urlPresigner;
+    S3Presigner sdkPresigner;
+
+    @Setup
+    public void setUp() {
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(
+                AwsBasicCredentials.create("test", "test"));
+        s3Keys = IntStream.range(0, windowSize)
+                .mapToObj(i -> "users/%d/%s.jpeg".formatted(i % 7, UUID.randomUUID()))
+                .toList();
+        s3Client = S3Client.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(ENDPOINT)
+                .credentialsProvider(credentials)
+                .forcePathStyle(true)
+                .build();
+        urlPresigner = new S3UrlPresigner(credentials, s3Client, true);
+        sdkPresigner = S3Presigner.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(ENDPOINT)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(true)
+                        .build())
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sdkPresigner.close();
+        s3Client.close();
+    }
+
+    @Benchmark
+    public Map<String, String> urlPresignerBatch() {
+        return urlPresigner.presignGetUrls(BUCKET, s3Keys, TTL);
+    }
+
+    @Benchmark
+    public String[] sdkPresigner() {
+        String[] urls = new String[s3Keys.size()];
+        for (int i = 0; i < urls.length; i++) {
+            String s3Key = s3Keys.get(i);
+            urls[i] = sdkPresigner.presignGetObject(request -> request
+                            .signatureDuration(TTL)
+                            .getObjectRequest(object -> object.bucket(BUCKET).key(s3Key)))
+                    .url()
+                    .toString();
+        }
+        return urls;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(S3UrlPresignerBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+}
@@ -0,0 +1,194 @@
+package kektor.innowise.gallery.image.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import io.awspring.cloud.s3.S3Template;
+import kektor.innowise.gallery.image.dto.UserDto;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import org.wiremock.spring.ConfigureWireMock;
+import org.wiremock.spring.EnableWireMock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static kektor.innowise.gallery.security.HeadersAuthenticationFilter.EMAIL_HEADER;
+import static kektor.innowise.gallery.security.HeadersAuthenticationFilter.USERNAME_HEADER;
+import static kektor.innowise.gallery.security.HeadersAuthenticationFilter.USER_ID_HEADER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Measures read throughput of {@code GET /api/images/{id}} while more uploads than
+ * Hikari connections are in flight. Slow S3 transfers are emulated by a blocking {@link S3Template} mock.
+ * Not part of the regular test run: {@code mvn verify -Dit.test=UploadReadThroughputBenchmark}.
+ */
+@Slf4j
+@SpringBootTest
+@Testcontainers
+@AutoConfigureMockMvc
+@EnableWireMock({
+        @ConfigureWireMock(port = 8089)
+})
+@Sql(scripts = {
+        "/sql/cleanup.sql",
+        "/sql/test-data.sql"
+}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@ActiveProfiles("test")
+public class UploadReadThroughputBenchmark {
+
+    static final int CONCURRENT_UPLOADS = 20;
+    static final int READERS = 4;
+    static final Duration UPLOAD_LATENCY = Duration.ofSeconds(2);
+    static final Duration MEASUREMENT = Duration.ofSeconds(5);
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer(
+            DockerImageName.parse("postgres:18-alpine"))
+            .withDatabaseName("images_db")
+            .withUsername("testUser")
+            .withPassword("testPassword");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("gallery.security.protected-services.comment-service-url", () -> "http://localhost:8089");
+        registry.add("gallery.security.protected-services.user-service-url", () -> "http://localhost:8089");
+    }
+
+    @MockitoBean
+    S3Template s3Template;
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    HttpHeaders headers;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        headers = new HttpHeaders();
+        headers.add(USER_ID_HEADER, "1");
+        headers.add(USERNAME_HEADER, "user1");
+        headers.add(EMAIL_HEADER, "user1@test.com");
+
+        stubFor(WireMock.get(urlPathMatching("/api/users/id/.*"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(objectMapper.writeValueAsString(new UserDto(1L, "testUsername", "testEmail")))
+                        .withStatus(200)));
+        doAnswer(_ -> {
+            Thread.sleep(UPLOAD_LATENCY);
+            return null;
+        }).when(s3Template).upload(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void readThroughputHoldsUp_During_ConcurrentUploads() throws Exception {
+        double idleThroughput = measureReadThroughput();
+
+        AtomicBoolean uploading = new AtomicBoolean(true);
+        ExecutorService uploaders = Executors.newFixedThreadPool(CONCURRENT_UPLOADS);
+        List<Future<?>> uploads = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_UPLOADS; i++) {
+            uploads.add(uploaders.submit(() -> {
+                while (uploading.get()) {
+                    upload();
+                }
+                return null;
+            }));
+        }
+        Thread.sleep(UPLOAD_LATENCY.dividedBy(2));
+        double loadedThroughput = measureReadThroughput();
+        uploading.set(false);
+        uploaders.shutdown();
+        assertThat(uploaders.awaitTermination(UPLOAD_LATENCY.toSeconds() * 3, TimeUnit.SECONDS)).isTrue();
+        awaitAll(uploads);
+
+        log.info("Read throughput: idle {} req/s, during {} concurrent uploads {} req/s",
+                "%.1f".formatted(idleThroughput), CONCURRENT_UPLOADS, "%.1f".formatted(loadedThroughput));
+        assertThat(loadedThroughput).isGreaterThan(idleThroughput * 0.5);
+    }
+
+    double measureReadThroughput() throws Exception {
+        LongAdder completed = new LongAdder();
+        long deadline = System.nanoTime() + MEASUREMENT.toNanos();
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        List<Future<?>> reads = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            reads.add(readers.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    mockMvc.perform(get("/api/images/{id}", 1L)
+                                    .headers(headers)
+                                    .contentType(MediaType.APPLICATION_JSON))
+                            .andExpect(status().isOk());
+                    completed.increment();
+                }
+                return null;
+            }));
+        }
+        readers.shutdown();
+        assertThat(readers.awaitTermination(MEASUREMENT.toSeconds() * 10, TimeUnit.SECONDS)).isTrue();
+        awaitAll(reads);
+        return completed.sum() / (double) MEASUREMENT.toSeconds();
+    }
+
+    /**
+     * Rethrows the first failed request, so error responses never count as throughput.
+     */
+    void awaitAll(List<Future<?>> workers) throws Exception {
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+    }
+
+    void upload() throws Exception {
+        MockMultipartFile imageFile = new MockMultipartFile(
+                "imageFile",
+                "test-image.jpg",
+                MediaType.IMAGE_JPEG_VALUE,
+                "test image content".getBytes()
+        );
+        mockMvc.perform(multipart("/api/images/upload")
+                        .file(imageFile)
+                        .param("description", "Benchmark image")
+                        .headers(headers)
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isOk());
+    }
+
+}
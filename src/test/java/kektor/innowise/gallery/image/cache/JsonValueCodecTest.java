@@ -0,0 +1,33 @@
+package kektor.innowise.gallery.image.cache;
+
+import kektor.innowise.gallery.image.dto.UserDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonValueCodecTest {
+
+    final JsonValueCodec codec = new JsonValueCodec();
+    final UserDto user = new UserDto(42L, "firstUser", "first@test.com");
+
+    @Test
+    void roundTripOptionalUsers_When_Serialized() {
+        List<Object> values = List.of(Optional.of(user), Optional.empty(), user, "http://localhost:4566/image.png");
+
+        for (Object value : values) {
+            assertThat(codec.deserialize(codec.serialize(value))).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void readValue_When_WrittenByPlainJsonSerializer() {
+        byte[] bytes = RedisSerializer.json().serialize(user);
+
+        assertThat(codec.deserialize(bytes)).isEqualTo(user);
+    }
+
+}
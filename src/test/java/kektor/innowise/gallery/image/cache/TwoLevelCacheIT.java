@@ -0,0 +1,156 @@
+package kektor.innowise.gallery.image.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@Testcontainers
+public class TwoLevelCacheIT {
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    LettuceConnectionFactory connectionFactory;
+    SimpleMeterRegistry meterRegistry;
+    TwoLevelCacheManager firstNode;
+    TwoLevelCacheManager secondNode;
+    RedisMessageListenerContainer listenerContainer;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        meterRegistry = new SimpleMeterRegistry();
+        ChannelTopic topic = new ChannelTopic("cache-invalidation-test");
+        CompactValueCodec codec = new CompactValueCodec(512, RedisSerializer.json());
+        List<TwoLevelCacheSpec> specs = List.of(
+                TwoLevelCacheSpec.of("usersCache", 100, Duration.ofMinutes(30), Duration.ofSeconds(20))
+                        .withBroadcastInvalidations());
+        firstNode = new TwoLevelCacheManager(specs, connectionFactory, codec, topic, meterRegistry);
+        secondNode = new TwoLevelCacheManager(specs, connectionFactory, codec, topic,
+                new SimpleMeterRegistry());
+        firstNode.initializeCaches();
+        secondNode.initializeCaches();
+
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener(firstNode, topic);
+        listenerContainer.addMessageListener(secondNode, topic);
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        firstNode.getCache("usersCache").clear();
+        listenerContainer.destroy();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void promoteRemoteHitIntoLocalWithRemainingTtl_When_OtherNodeCachedValue() {
+        secondNode.getCache("usersCache").put("by_id:1", "firstUser");
+
+        TwoLevelCache cache = (TwoLevelCache) firstNode.getCache("usersCache");
+        assertThat(cache.get("by_id:1", String.class)).isEqualTo("firstUser");
+        assertThat(cache.get("by_id:1", String.class)).isEqualTo("firstUser");
+
+        assertThat(gets("local", "miss")).isEqualTo(1);
+        assertThat(gets("remote", "hit")).isEqualTo(1);
+        assertThat(gets("local", "hit")).isEqualTo(1);
+        @SuppressWarnings("unchecked")
+        var nativeCache = (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+        assertThat(nativeCache.policy().expireVariably().orElseThrow().getExpiresAfter("by_id:1"))
+                .hasValueSatisfying(ttl -> assertThat(ttl).isLessThanOrEqualTo(Duration.ofSeconds(20)));
+    }
+
+    @Test
+    void countMissOnBothLevels_When_KeyAbsent() {
+        assertThat(firstNode.getCache("usersCache").get("by_id:404")).isNull();
+
+        assertThat(gets("local", "miss")).isEqualTo(1);
+        assertThat(gets("remote", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    void removeFromBothLevels_When_Evicted() {
+        firstNode.getCache("usersCache").put("by_id:1", "firstUser");
+
+        firstNode.getCache("usersCache").evict("by_id:1");
+
+        assertThat(firstNode.getCache("usersCache").get("by_id:1")).isNull();
+        assertThat(secondNode.getCache("usersCache").get("by_id:1")).isNull();
+        try (var connection = connectionFactory.getConnection()) {
+            assertThat(connection.keyCommands().exists("usersCache::by_id:1".getBytes(StandardCharsets.UTF_8)))
+                    .isFalse();
+        }
+    }
+
+    @Test
+    void evictStaleLocalEntryOnOtherNode_When_RemoteValueChanged() {
+        secondNode.getCache("usersCache").put("by_id:1", "oldUsername");
+        assertThat(firstNode.getCache("usersCache").get("by_id:1", String.class)).isEqualTo("oldUsername");
+
+        secondNode.getCache("usersCache").put("by_id:1", "newUsername");
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(firstNode.getCache("usersCache").get("by_id:1", String.class)).isEqualTo("newUsername"));
+        assertThat(meterRegistry.get("cache.invalidations.received").counter().count()).isPositive();
+    }
+
+    @Test
+    void serveWindowInOneRoundTrip_When_BatchRead() {
+        TwoLevelCache writer = (TwoLevelCache) secondNode.getCache("usersCache");
+        writer.putAll(Map.of("by_id:1", "firstUser", "by_id:2", "secondUser"));
+        TwoLevelCache cache = (TwoLevelCache) firstNode.getCache("usersCache");
+        cache.put("by_id:3", "thirdUser");
+        double roundTrips = roundTrips();
+
+        Map<Object, Object> found = cache.getAll(List.of("by_id:1", "by_id:2", "by_id:3", "by_id:404"));
+
+        assertThat(found).containsOnly(
+                Map.entry("by_id:1", "firstUser"),
+                Map.entry("by_id:2", "secondUser"),
+                Map.entry("by_id:3", "thirdUser"));
+        assertThat(roundTrips() - roundTrips).isEqualTo(1);
+        assertThat(gets("local", "hit")).isEqualTo(1);
+        assertThat(gets("remote", "hit")).isEqualTo(2);
+        assertThat(gets("remote", "miss")).isEqualTo(1);
+        assertThat(cache.getAll(List.of("by_id:1", "by_id:2"))).hasSize(2);
+        assertThat(roundTrips() - roundTrips).isEqualTo(1);
+    }
+
+    double roundTrips() {
+        return meterRegistry.get("cache.remote.round.trips").counter().count();
+    }
+
+    double gets(String level, String result) {
+        return meterRegistry.get("cache.level.gets")
+                .tag("level", level)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+}
@@ -0,0 +1,158 @@
+package kektor.innowise.gallery.image.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TwoLevelCacheTest {
+
+    @Mock
+    RedisConnectionFactory connectionFactory;
+
+    SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(connectionFactory.getConnection()).thenThrow(new RedisConnectionFailureException("Redis is down"));
+    }
+
+    @Test
+    void loadOnce_When_ConcurrentCallersMissSameKey() throws Exception {
+        TwoLevelCache cache = cache(TwoLevelCacheSpec.of("usersCache", 100, Duration.ofMinutes(5), Duration.ofMinutes(5)));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        int callers = 8;
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get("by_id:1", () -> {
+                    loads.incrementAndGet();
+                    assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+                    return "firstUser";
+                })));
+            }
+            await().atMost(Duration.ofSeconds(5)).until(() -> coalescedLoads() == callers - 1);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("firstUser");
+            }
+        }
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void propagateLoaderFailure_When_LoadFails() {
+        TwoLevelCache cache = cache(TwoLevelCacheSpec.of("usersCache", 100, Duration.ofMinutes(5), Duration.ofMinutes(5)));
+
+        assertThatThrownBy(() -> cache.get("by_id:1", () -> {
+            throw new IllegalStateException("User service unavailable");
+        })).isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+        assertThat(cache.get("by_id:1", () -> "firstUser")).isEqualTo("firstUser");
+    }
+
+    @Test
+    void serveCachedValueAndRefreshInBackground_When_EntryCloseToExpiry() {
+        TwoLevelCache cache = cache(TwoLevelCacheSpec.of("usersCache", 100, Duration.ofMinutes(5), Duration.ofMinutes(5))
+                .withRefreshAhead(Duration.ofMinutes(10)));
+        cache.put("by_id:1", "oldUsername");
+
+        String served = cache.get("by_id:1", () -> "newUsername");
+
+        assertThat(served).isEqualTo("oldUsername");
+        assertThat(cache.get("by_id:1", String.class)).isEqualTo("newUsername");
+        assertThat(meterRegistry.get("cache.refreshes").tag("result", "success").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void keepCachedValue_When_BackgroundRefreshFails() {
+        TwoLevelCache cache = cache(TwoLevelCacheSpec.of("usersCache", 100, Duration.ofMinutes(5), Duration.ofMinutes(5))
+                .withRefreshAhead(Duration.ofMinutes(10)));
+        cache.put("by_id:1", "oldUsername");
+
+        String served = cache.get("by_id:1", () -> {
+            throw new IllegalStateException("User service unavailable");
+        });
+
+        assertThat(served).isEqualTo("oldUsername");
+        assertThat(cache.get("by_id:1", String.class)).isEqualTo("oldUsername");
+        assertThat(meterRegistry.get("cache.refreshes").tag("result", "failure").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void serveLocalEntries_When_BatchReadAndRedisDown() {
+        TwoLevelCache cache = cache(TwoLevelCacheSpec.of("usersCache", 100, Duration.ofMinutes(5), Duration.ofMinutes(5)));
+        Map<String, String> entries = new HashMap<>();
+        entries.put("by_id:1", "firstUser");
+        entries.put("by_id:2", null);
+        cache.putAll(entries);
+
+        assertThat(cache.getAll(List.of("by_id:1", "by_id:2"))).containsOnly(Map.entry("by_id:1", "firstUser"));
+        assertThat(meterRegistry.get("cache.level.gets").tag("level", "remote").tag("result", "miss").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void broadcastOnlyExplicitUpdates_When_ValuesLoadedOrRefreshed() {
+        List<String> published = new ArrayList<>();
+        TwoLevelCache cache = cache(TwoLevelCacheSpec.of("usersCache", 100, Duration.ofMinutes(5), Duration.ofMinutes(5))
+                        .withBroadcastInvalidations()
+                        .withRefreshAhead(Duration.ofMinutes(10)),
+                (_, key) -> published.add(key));
+
+        cache.get("by_id:1", () -> "firstUser");
+        cache.get("by_id:1", () -> "firstUser");
+        cache.putAll(Map.of("by_id:2", "secondUser"));
+
+        assertThat(published).isEmpty();
+
+        cache.get("by_id:1", () -> "renamedUser");
+        cache.put("by_id:2", "renamedSecondUser");
+        cache.evict("by_id:3");
+
+        assertThat(published).containsExactly("by_id:1", "by_id:2", "by_id:3");
+    }
+
+    TwoLevelCache cache(TwoLevelCacheSpec spec) {
+        return cache(spec, (_, _) -> {
+        });
+    }
+
+    TwoLevelCache cache(TwoLevelCacheSpec spec, CacheInvalidationPublisher invalidationPublisher) {
+        return new TwoLevelCache(spec, connectionFactory, RedisSerializer.json(), invalidationPublisher,
+                Runnable::run, meterRegistry);
+    }
+
+    double coalescedLoads() {
+        return meterRegistry.get("cache.loads.coalesced").counter().count();
+    }
+
+}
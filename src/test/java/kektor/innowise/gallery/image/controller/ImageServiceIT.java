@@ -2,8 +2,11 @@ package kektor.innowise.gallery.image.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.client.WireMock;
+import kektor.innowise.gallery.image.dto.PresignedUploadDto;
+import kektor.innowise.gallery.image.dto.PresignedUploadRequestDto;
 import kektor.innowise.gallery.image.dto.UpdateRequestDto;
 import kektor.innowise.gallery.image.dto.UserDto;
+import kektor.innowise.gallery.image.service.LikeCounterBuffer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,7 +31,13 @@ import org.testcontainers.utility.MountableFile;
 import org.wiremock.spring.ConfigureWireMock;
 import org.wiremock.spring.EnableWireMock;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.List;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
@@ -37,6 +46,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
 import static kektor.innowise.gallery.security.HeadersAuthenticationFilter.EMAIL_HEADER;
 import static kektor.innowise.gallery.security.HeadersAuthenticationFilter.USER_ID_HEADER;
 import static kektor.innowise.gallery.security.HeadersAuthenticationFilter.USERNAME_HEADER;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.emptyString;
 import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -61,6 +71,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ActiveProfiles("test")
 public class ImageServiceIT {
 
+    static final String BOUNDARY = "gallery-test-boundary";
+
     @Container
     @ServiceConnection
     static PostgreSQLContainer postgres = new PostgreSQLContainer(
@@ -91,9 +103,12 @@ public class ImageServiceIT {
     MockMvc mockMvc;
     @Autowired
     ObjectMapper objectMapper;
+    @Autowired
+    LikeCounterBuffer likeCounter;
 
     HttpHeaders headers;
     UserDto user;
+    List<UserDto> users;
 
     @BeforeEach
     void setUp() {
@@ -103,11 +118,16 @@ public class ImageServiceIT {
         headers.add(EMAIL_HEADER, "user1@test.com");
 
         user = new UserDto(1L, "testUsername", "testEmail");
+        users = List.of(
+                user,
+                new UserDto(2L, "secondUsername", "secondEmail"),
+                new UserDto(3L, "thirdUsername", "thirdEmail"));
     }
 
     @AfterEach
     void clear() {
         WireMock.resetToDefault();
+        likeCounter.flush();
     }
 
     @Test
@@ -154,6 +174,103 @@ public class ImageServiceIT {
                 .andExpect(content().string(not(emptyString())));
     }
 
+    @Test
+    void createImage_When_ValidStreamingUploadRequest() throws Exception {
+        stubFor(WireMock.get(urlPathEqualTo("/api/users/id/1"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(objectMapper.writeValueAsString(user))
+                        .withStatus(200)));
+
+        byte[] body = multipartBody(
+                "--" + BOUNDARY + "\r\n" +
+                "Content-Disposition: form-data; name=\"imageFile\"; filename=\"test-image.jpg\"\r\n" +
+                "Content-Type: image/jpeg\r\n\r\n" +
+                "test image content\r\n" +
+                "--" + BOUNDARY + "\r\n" +
+                "Content-Disposition: form-data; name=\"description\"\r\n\r\n" +
+                "New streamed image\r\n" +
+                "--" + BOUNDARY + "--\r\n");
+
+        mockMvc.perform(post("/api/images/upload/stream")
+                        .headers(headers)
+                        .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(1))
+                .andExpect(jsonPath("$.description").value("New streamed image"));
+    }
+
+    @Test
+    void returnBadRequest_When_InvalidStreamingUploadRequest() throws Exception {
+        byte[] body = multipartBody(
+                "--" + BOUNDARY + "\r\n" +
+                "Content-Disposition: form-data; name=\"imageFile\"; filename=\"test-image.xml\"\r\n" +
+                "Content-Type: text/xml\r\n\r\n" +
+                "<xml/>\r\n" +
+                "--" + BOUNDARY + "--\r\n");
+
+        mockMvc.perform(post("/api/images/upload/stream")
+                        .headers(headers)
+                        .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createImage_When_PresignedUploadCompleted() throws Exception {
+        stubFor(WireMock.get(urlPathEqualTo("/api/users/id/1"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(objectMapper.writeValueAsString(user))
+                        .withStatus(200)));
+        byte[] image = "presigned image content".getBytes();
+        PresignedUploadRequestDto uploadRequest = new PresignedUploadRequestDto(
+                "New presigned image", "test-image.png", MediaType.IMAGE_PNG_VALUE, (long) image.length);
+
+        String response = mockMvc.perform(post("/api/images/uploads")
+                        .headers(headers)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(uploadRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.method").value("PUT"))
+                .andReturn().getResponse().getContentAsString();
+        PresignedUploadDto upload = objectMapper.readValue(response, PresignedUploadDto.class);
+
+        mockMvc.perform(post("/api/images/uploads/{uploadId}/complete", upload.uploadId())
+                        .headers(headers))
+                .andExpect(status().isBadRequest());
+
+        HttpRequest.Builder putRequest = HttpRequest.newBuilder(URI.create(upload.url()))
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(image));
+        upload.headers().forEach(putRequest::header);
+        try (HttpClient httpClient = HttpClient.newHttpClient()) {
+            assertThat(httpClient.send(putRequest.build(), HttpResponse.BodyHandlers.discarding()).statusCode())
+                    .isEqualTo(200);
+        }
+
+        mockMvc.perform(post("/api/images/uploads/{uploadId}/complete", upload.uploadId())
+                        .headers(headers))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(1))
+                .andExpect(jsonPath("$.description").value("New presigned image"));
+        mockMvc.perform(post("/api/images/uploads/{uploadId}/complete", upload.uploadId())
+                        .headers(headers))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void returnBadRequest_When_PresignedUploadOfUnsupportedType() throws Exception {
+        PresignedUploadRequestDto uploadRequest = new PresignedUploadRequestDto(
+                "New presigned image", "test-image.xml", MediaType.TEXT_XML_VALUE, 6L);
+
+        mockMvc.perform(post("/api/images/uploads")
+                        .headers(headers)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(uploadRequest)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void returnBadRequest_When_InvalidUploadRequest() throws Exception {
         MockMultipartFile imageFile = new MockMultipartFile(
@@ -171,6 +288,15 @@ public class ImageServiceIT {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void returnBadRequest_When_UploadRequestMissesImageFile() throws Exception {
+        mockMvc.perform(multipart("/api/images/upload")
+                        .param("description", "New test image")
+                        .headers(headers)
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void updateImage_When_UserIsOwner() throws Exception {
         String updatedDescription = "Updated description";
@@ -230,12 +356,46 @@ public class ImageServiceIT {
                 .andExpect(jsonPath("$.likesCount").value(4));
     }
 
+    @Test
+    void likeImageIdempotently_When_PutAndDeleteLike() throws Exception {
+        mockMvc.perform(put("/api/images/{imageId}/like", 3L)
+                        .headers(headers))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imageId").value(3))
+                .andExpect(jsonPath("$.likesCount").value(1))
+                .andExpect(jsonPath("$.isLiked").value(true))
+                .andExpect(jsonPath("$.changed").doesNotExist());
+        mockMvc.perform(put("/api/images/{imageId}/like", 3L)
+                        .headers(headers))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likesCount").value(1))
+                .andExpect(jsonPath("$.isLiked").value(true));
+
+        mockMvc.perform(delete("/api/images/{imageId}/like", 3L)
+                        .headers(headers))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likesCount").value(0))
+                .andExpect(jsonPath("$.isLiked").value(false));
+        mockMvc.perform(delete("/api/images/{imageId}/like", 3L)
+                        .headers(headers))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likesCount").value(0))
+                .andExpect(jsonPath("$.isLiked").value(false));
+    }
+
+    @Test
+    void returnNotFound_When_LikingMissingImage() throws Exception {
+        mockMvc.perform(put("/api/images/{imageId}/like", 10000L)
+                        .headers(headers))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void returnPaginatedImages_When_ScrollParametersProvided() throws Exception {
-        stubFor(WireMock.get(urlPathMatching("/api/users/id/.*"))
+        stubFor(WireMock.get(urlPathEqualTo("/api/users/batch"))
                 .willReturn(aResponse()
                         .withHeader("Content-Type", "application/json")
-                        .withBody(objectMapper.writeValueAsString(user))
+                        .withBody(objectMapper.writeValueAsString(users))
                         .withStatus(200)));
 
         mockMvc.perform(get("/api/images")
@@ -248,13 +408,27 @@ public class ImageServiceIT {
                 .andExpect(jsonPath("$.content").isArray());
     }
 
+    @Test
+    void returnBadRequest_When_SortNotIndexBacked() throws Exception {
+        mockMvc.perform(get("/api/images")
+                        .headers(headers)
+                        .param("size", "5")
+                        .param("sort", "description,asc"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void returnUserImages_When_UserExists() throws Exception {
-        stubFor(WireMock.get(urlPathMatching("/api/users/(username|id)/.*"))
+        stubFor(WireMock.get(urlPathMatching("/api/users/username/.*"))
                 .willReturn(aResponse()
                         .withHeader("Content-Type", "application/json")
                         .withBody(objectMapper.writeValueAsString(user))
                         .withStatus(200)));
+        stubFor(WireMock.get(urlPathEqualTo("/api/users/batch"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(objectMapper.writeValueAsString(users))
+                        .withStatus(200)));
 
         mockMvc.perform(get("/api/images/username/{username}", "testUsername")
                         .headers(headers)
@@ -266,10 +440,10 @@ public class ImageServiceIT {
 
     @Test
     void returnCurrentUserImages_When_Authenticated() throws Exception {
-        stubFor(WireMock.get(urlPathMatching("/api/users/id/.*"))
+        stubFor(WireMock.get(urlPathEqualTo("/api/users/batch"))
                 .willReturn(aResponse()
                         .withHeader("Content-Type", "application/json")
-                        .withBody(objectMapper.writeValueAsString(user))
+                        .withBody(objectMapper.writeValueAsString(users))
                         .withStatus(200)));
 
         mockMvc.perform(get("/api/images/user/current")
@@ -299,4 +473,8 @@ public class ImageServiceIT {
                 .andExpect(jsonPath("$.username").value(user.username()))
                 .andExpect(jsonPath("$.description").value("Test description 1"));
     }
-}
\ No newline at end of file
+
+    byte[] multipartBody(String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+}
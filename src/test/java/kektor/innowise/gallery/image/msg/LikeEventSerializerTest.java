@@ -0,0 +1,78 @@
+package kektor.innowise.gallery.image.msg;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LikeEventSerializerTest {
+
+    static final String TOPIC = "like-events";
+
+    final LikeEventSerializer serializer = new LikeEventSerializer();
+    final LikeEventDeserializer deserializer = new LikeEventDeserializer();
+    final LikeEventMessage event = LikeEventMessage.builder()
+            .eventType(LikeEventMessage.EventType.LIKE)
+            .imageId(1_024L)
+            .userId(-7L)
+            .username("firstUser")
+            .instant(Instant.parse("2026-01-01T10:15:30.123456789Z"))
+            .imageOwnerId(Long.MAX_VALUE)
+            .likesCount(Integer.MIN_VALUE)
+            .build();
+
+    @Test
+    void roundTripEvents_When_Serialized() {
+        LikeEventMessage empty = LikeEventMessage.builder().build();
+
+        assertThat(deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, event))).isEqualTo(event);
+        assertThat(deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, empty))).isEqualTo(empty);
+        assertThat(serializer.serialize(TOPIC, null)).isNull();
+        assertThat(deserializer.deserialize(TOPIC, null)).isNull();
+    }
+
+    @Test
+    void writeVersionedFewerBytesThanJson_When_Serialized() {
+        byte[] bytes = serializer.serialize(TOPIC, event);
+
+        try (JsonSerializer<LikeEventMessage> json = new JsonSerializer<>()) {
+            assertThat(bytes[0]).isEqualTo(LikeEventCodec.VERSION_1);
+            assertThat(bytes.length).isLessThan(json.serialize(TOPIC, event).length / 3);
+        }
+    }
+
+    @Test
+    void writeStableEventTypeCode_When_Serialized() {
+        LikeEventMessage removeLike = LikeEventMessage.builder()
+                .eventType(LikeEventMessage.EventType.REMOVE_LIKE)
+                .build();
+
+        assertThat(serializer.serialize(TOPIC, event)[1]).isEqualTo((byte) 1);
+        assertThat(serializer.serialize(TOPIC, removeLike)[1]).isEqualTo((byte) 2);
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, new byte[]{LikeEventCodec.VERSION_1, 3, 0}))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void readJson_When_WrittenByJsonSerializer() {
+        try (JsonSerializer<LikeEventMessage> json = new JsonSerializer<>()) {
+            byte[] bytes = json.serialize(TOPIC, event);
+
+            assertThat(deserializer.deserialize(TOPIC, bytes)).isEqualTo(event);
+        }
+    }
+
+    @Test
+    void throwSerializationException_When_EventTruncated() {
+        byte[] bytes = serializer.serialize(TOPIC, event);
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, Arrays.copyOf(bytes, bytes.length - 1)))
+                .isInstanceOf(SerializationException.class);
+    }
+
+}
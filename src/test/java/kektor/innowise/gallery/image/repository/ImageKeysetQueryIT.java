@@ -0,0 +1,141 @@
+package kektor.innowise.gallery.image.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Testcontainers
+@Sql(scripts = {
+        "/sql/cleanup.sql",
+        "/sql/feed-window-data.sql"
+}, config = @SqlConfig(transactionMode = SqlConfig.TransactionMode.ISOLATED),
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class ImageKeysetQueryIT {
+
+    static final int WINDOW_SIZE = 100;
+    static final Long OWNER_ID = 7L;
+    static final Long VIEWER_ID = 1L;
+    static final List<Sort.Order> RECENT = List.of(Sort.Order.desc("uploadedAt"), Sort.Order.desc("id"));
+    static final List<Sort.Order> MOST_LIKED = List.of(Sort.Order.desc("likesCount"), Sort.Order.desc("id"));
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer(
+            DockerImageName.parse("postgres:18-alpine"))
+            .withDatabaseName("images_db")
+            .withUsername("testUser")
+            .withPassword("testPassword");
+
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    ImageRepository imageRepository;
+
+    @BeforeEach
+    void disableSequentialScans() {
+        entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+    }
+
+    @Test
+    void seekUserRecentIndex_When_UserImagesScrolledByUploadedAt() {
+        String plan = explain(UtilityRepositoryFragmentImpl.rowValueQuery(RECENT, true, false, true, false),
+                Map.of("ownerId", OWNER_ID, "keyset0", Instant.now(), "keyset1", Long.MAX_VALUE));
+
+        assertThat(plan)
+                .contains("Index Scan using idx_images_user_recent_id")
+                .contains("ROW(uploaded_at, id) < ROW(")
+                .doesNotContain("Sort");
+    }
+
+    @Test
+    void seekLikesCountIndex_When_FeedScrolledByLikesCount() {
+        String plan = explain(UtilityRepositoryFragmentImpl.rowValueQuery(MOST_LIKED, false, false, true, false),
+                Map.of("keyset0", 10, "keyset1", 1_000L));
+
+        assertThat(plan)
+                .contains("Index Scan using idx_images_likes_count")
+                .contains("ROW(likes_count, id) < ROW(")
+                .doesNotContain("Sort");
+    }
+
+    @Test
+    void scanRecentIndexBackward_When_FeedScrolledBackward() {
+        String plan = explain(UtilityRepositoryFragmentImpl.rowValueQuery(RECENT, false, true, true, true),
+                Map.of("uploadedAfter", Instant.EPOCH, "keyset0", Instant.now(), "keyset1", 1L));
+
+        assertThat(plan)
+                .contains("Index Scan Backward using idx_images_recent")
+                .contains("ROW(uploaded_at, id) > ROW(")
+                .doesNotContain("Sort");
+    }
+
+    @Test
+    void visitEveryImageOnce_When_UserImagesScrolledWithRowValueKeyset() {
+        List<ImageView> scrolled = new ArrayList<>();
+        KeysetScrollPosition position = ScrollPosition.keyset();
+        Window<ImageView> window;
+        do {
+            window = imageRepository.findAllViews(OWNER_ID, null, VIEWER_ID, position,
+                    Sort.by(Sort.Direction.DESC, "uploadedAt"), Limit.of(WINDOW_SIZE / 10));
+            scrolled.addAll(window.getContent());
+            if (!window.isEmpty()) {
+                position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            }
+        } while (window.hasNext());
+
+        assertThat(scrolled)
+                .hasSize(40)
+                .allMatch(view -> OWNER_ID.equals(view.userId()))
+                .allMatch(view -> view.liked() == (view.id() % 3 == 0))
+                .isSortedAccordingTo(Comparator.comparing(ImageView::uploadedAt).reversed());
+    }
+
+    @Test
+    void resolveLikedFlag_When_ViewsMaterializedFromNativeQuery() {
+        Window<ImageView> window = imageRepository.findAllViews(OWNER_ID, null, VIEWER_ID, ScrollPosition.keyset(),
+                Sort.by(Sort.Direction.DESC, "uploadedAt"), Limit.of(2));
+
+        assertThat(window.getContent())
+                .extracting(ImageView::id, ImageView::userId, ImageView::s3key, ImageView::likesCount, ImageView::liked)
+                .containsExactly(
+                        tuple(7L, OWNER_ID, "users/7/benchmark-7.jpeg", 7, false),
+                        tuple(57L, OWNER_ID, "users/7/benchmark-57.jpeg", 6, true));
+    }
+
+    String explain(String query, Map<String, ?> parameters) {
+        Query explain = entityManager.createNativeQuery("EXPLAIN " + query + " LIMIT " + (WINDOW_SIZE + 1));
+        explain.setParameter("viewerId", VIEWER_ID);
+        parameters.forEach(explain::setParameter);
+        return ((List<?>) explain.getResultList())
+                .stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining("\n"));
+    }
+
+}
@@ -0,0 +1,215 @@
+package kektor.innowise.gallery.image.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kektor.innowise.gallery.image.msg.LikeEventMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static kektor.innowise.gallery.image.service.BrokerEventService.Delivery.Status.FAILED;
+import static kektor.innowise.gallery.image.service.BrokerEventService.Delivery.Status.JOURNALED;
+import static kektor.innowise.gallery.image.service.BrokerEventService.Delivery.Status.SENT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BrokerEventServiceTest {
+
+    static final String TOPIC = "like-events";
+
+    @Mock
+    KafkaTemplate<Long, LikeEventMessage> kafkaTemplate;
+    @Mock
+    LikeEventJournal journal;
+
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final LikeEventMessage event = likeEvent(10L);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(journal.isEmpty()).thenReturn(true);
+    }
+
+    static LikeEventMessage likeEvent(Long imageId) {
+        return LikeEventMessage.builder()
+                .eventType(LikeEventMessage.EventType.LIKE)
+                .imageId(imageId)
+                .userId(1L)
+                .build();
+    }
+
+    BrokerEventService publisher(int capacity, int maxInFlight) {
+        return publisher(capacity, maxInFlight, Runnable::run);
+    }
+
+    BrokerEventService publisher(int capacity, int maxInFlight, Executor publisherExecutor) {
+        return new BrokerEventService(kafkaTemplate, journal, meterRegistry, TOPIC, capacity, maxInFlight, 100,
+                publisherExecutor);
+    }
+
+    @Test
+    void reportAcknowledgedDelivery_When_SendCompletes() {
+        CompletableFuture<SendResult<Long, LikeEventMessage>> sent = new CompletableFuture<>();
+        when(kafkaTemplate.send(TOPIC, 10L, event)).thenReturn(sent);
+        BrokerEventService publisher = publisher(10, 10);
+
+        assertThat(publisher.offer(1L, event)).isTrue();
+        assertThat(publisher.pollDeliveries()).isEmpty();
+        assertThat(meterRegistry.get(BrokerEventService.IN_FLIGHT_METER).gauge().value()).isEqualTo(1);
+
+        sent.complete(null);
+
+        assertThat(publisher.pollDeliveries()).containsExactly(new BrokerEventService.Delivery(1L, SENT));
+        assertThat(meterRegistry.get(BrokerEventService.IN_FLIGHT_METER).gauge().value()).isZero();
+    }
+
+    @Test
+    void rejectEvent_When_QueueFull() {
+        CompletableFuture<SendResult<Long, LikeEventMessage>> sent = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq(TOPIC), anyLong(), any())).thenReturn(sent);
+        BrokerEventService publisher = publisher(1, 1);
+
+        assertThat(publisher.offer(1L, event)).isTrue();
+        assertThat(publisher.offer(2L, event)).isTrue();
+        assertThat(publisher.offer(3L, event)).isFalse();
+        assertThat(meterRegistry.get(BrokerEventService.QUEUED_METER).gauge().value()).isEqualTo(1);
+
+        sent.complete(null);
+
+        assertThat(publisher.pollDeliveries())
+                .containsExactly(new BrokerEventService.Delivery(1L, SENT), new BrokerEventService.Delivery(2L, SENT));
+        verify(kafkaTemplate, times(2)).send(TOPIC, 10L, event);
+    }
+
+    @Test
+    void spillWithoutResending_When_SendFails() {
+        when(kafkaTemplate.send(TOPIC, 10L, event))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+        when(journal.append(1L, event)).thenReturn(true);
+        BrokerEventService publisher = publisher(10, 10);
+
+        publisher.offer(1L, event);
+
+        verify(kafkaTemplate, times(1)).send(TOPIC, 10L, event);
+        verify(journal).append(1L, event);
+        verify(journal).flush();
+        assertThat(publisher.pollDeliveries()).containsExactly(new BrokerEventService.Delivery(1L, JOURNALED));
+    }
+
+    @Test
+    void spillOnPublisherThread_When_SendFailsOnProducerThread() {
+        CompletableFuture<SendResult<Long, LikeEventMessage>> sent = new CompletableFuture<>();
+        when(kafkaTemplate.send(TOPIC, 10L, event)).thenReturn(sent);
+        when(journal.append(1L, event)).thenReturn(true);
+        List<Runnable> publisherTasks = new ArrayList<>();
+        BrokerEventService publisher = publisher(10, 10, publisherTasks::add);
+
+        publisher.offer(1L, event);
+        sent.completeExceptionally(new IllegalStateException("Broker unavailable"));
+
+        verify(journal, never()).append(any(), any());
+        assertThat(publisher.pollDeliveries()).isEmpty();
+
+        publisherTasks.forEach(Runnable::run);
+
+        verify(journal).append(1L, event);
+        assertThat(publisher.pollDeliveries()).containsExactly(new BrokerEventService.Delivery(1L, JOURNALED));
+    }
+
+    @Test
+    void flushJournalOnce_When_SeveralEventsSpilled() {
+        when(journal.append(anyLong(), any())).thenReturn(true);
+        List<Runnable> publisherTasks = new ArrayList<>();
+        BrokerEventService publisher = publisher(10, 10, publisherTasks::add);
+        when(journal.isEmpty()).thenReturn(false);
+
+        publisher.offer(1L, event);
+        publisher.offer(2L, event);
+        publisher.offer(3L, event);
+        publisherTasks.getFirst().run();
+
+        verify(journal, times(3)).append(anyLong(), eq(event));
+        verify(journal, times(1)).flush();
+        assertThat(publisher.pollDeliveries()).containsExactly(new BrokerEventService.Delivery(1L, JOURNALED),
+                new BrokerEventService.Delivery(2L, JOURNALED), new BrokerEventService.Delivery(3L, JOURNALED));
+    }
+
+    @Test
+    void reportFailedDelivery_When_SendFailsAndJournalFull() {
+        when(kafkaTemplate.send(TOPIC, 10L, event))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+        when(journal.append(1L, event)).thenReturn(false);
+        BrokerEventService publisher = publisher(10, 10);
+
+        publisher.offer(1L, event);
+
+        assertThat(publisher.pollDeliveries()).containsExactly(new BrokerEventService.Delivery(1L, FAILED));
+    }
+
+    @Test
+    void spillToJournal_When_JournalHoldsEarlierEvents() {
+        when(journal.isEmpty()).thenReturn(false);
+        when(journal.append(1L, event)).thenReturn(true);
+        BrokerEventService publisher = publisher(10, 10);
+
+        assertThat(publisher.offer(1L, event)).isTrue();
+
+        assertThat(publisher.pollDeliveries()).containsExactly(new BrokerEventService.Delivery(1L, JOURNALED));
+        verify(kafkaTemplate, never()).send(any(), any(), any());
+    }
+
+    @Test
+    void acknowledgeSentPrefix_When_ReplayingJournal() {
+        LikeEventMessage second = likeEvent(20L);
+        LikeEventMessage third = likeEvent(30L);
+        when(journal.peek(100)).thenReturn(List.of(
+                new LikeEventJournal.Entry(1L, event, 40),
+                new LikeEventJournal.Entry(2L, second, 70),
+                new LikeEventJournal.Entry(3L, third, 100)));
+        when(kafkaTemplate.send(TOPIC, 10L, event)).thenReturn(CompletableFuture.completedFuture(null));
+        when(kafkaTemplate.send(TOPIC, 20L, second))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+        when(kafkaTemplate.send(TOPIC, 30L, third)).thenReturn(CompletableFuture.completedFuture(null));
+        BrokerEventService publisher = publisher(10, 10);
+
+        publisher.replayJournal();
+
+        verify(journal).acknowledge(40);
+        assertThat(publisher.pollDeliveries()).containsExactly(new BrokerEventService.Delivery(1L, SENT));
+    }
+
+    @Test
+    void replayNextBatch_When_BatchSentAndJournalNotEmpty() {
+        LikeEventMessage second = likeEvent(20L);
+        when(journal.isEmpty()).thenReturn(false, true);
+        when(journal.peek(100))
+                .thenReturn(List.of(new LikeEventJournal.Entry(1L, event, 40)))
+                .thenReturn(List.of(new LikeEventJournal.Entry(2L, second, 70)));
+        when(kafkaTemplate.send(eq(TOPIC), anyLong(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        BrokerEventService publisher = publisher(10, 10);
+
+        publisher.replayJournal();
+
+        verify(journal).acknowledge(40);
+        verify(journal).acknowledge(70);
+        assertThat(publisher.pollDeliveries())
+                .containsExactly(new BrokerEventService.Delivery(1L, SENT), new BrokerEventService.Delivery(2L, SENT));
+    }
+
+}
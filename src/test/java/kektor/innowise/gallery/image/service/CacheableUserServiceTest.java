@@ -0,0 +1,169 @@
+package kektor.innowise.gallery.image.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kektor.innowise.gallery.image.cache.BatchCacheInvoker;
+import kektor.innowise.gallery.image.cache.TwoLevelCache;
+import kektor.innowise.gallery.image.cache.TwoLevelCacheSpec;
+import kektor.innowise.gallery.image.dto.UserDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleCacheErrorHandler;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static kektor.innowise.gallery.image.conf.CacheConfig.MISSING_USERS_CACHE;
+import static kektor.innowise.gallery.image.conf.CacheConfig.USERS_CACHE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheableUserServiceTest {
+
+    static final Duration TTL = Duration.ofMinutes(5);
+
+    @Mock
+    UserServiceClient userServiceClient;
+
+    @Mock
+    RedisConnectionFactory connectionFactory;
+
+    CacheManager cacheManager;
+    SimpleMeterRegistry meterRegistry;
+    CacheableUserService cacheableUserService;
+
+    final UserDto firstUser = new UserDto(1L, "firstUser", "first@test.com");
+    final UserDto secondUser = new UserDto(2L, "secondUser", "second@test.com");
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(connectionFactory.getConnection()).thenThrow(new RedisConnectionFailureException("Redis is down"));
+        useCaches(TwoLevelCacheSpec.of(USERS_CACHE, 100, TTL, TTL));
+    }
+
+    @Test
+    void fetchOnlyMissingUsersInSingleCall_When_SomeUsersCached() {
+        cacheManager.getCache(USERS_CACHE).put("by_id:1", Optional.of(firstUser));
+        when(userServiceClient.fetchUsers(List.of(2L)))
+                .thenReturn(List.of(secondUser));
+
+        List<UserDto> result = cacheableUserService.fetchUsers(List.of(1L, 2L, 2L, 1L));
+
+        assertThat(result).containsExactlyInAnyOrder(firstUser, secondUser);
+        verify(userServiceClient).fetchUsers(List.of(2L));
+        assertThat(cacheManager.getCache(USERS_CACHE).get("by_id:2", Optional.class)).contains(secondUser);
+    }
+
+    @Test
+    void skipRemoteCall_When_AllUsersCached() {
+        cacheManager.getCache(USERS_CACHE).put("by_id:1", Optional.of(firstUser));
+        cacheManager.getCache(USERS_CACHE).put("by_id:2", Optional.of(secondUser));
+
+        List<UserDto> result = cacheableUserService.fetchUsers(List.of(1L, 2L));
+
+        assertThat(result).containsExactlyInAnyOrder(firstUser, secondUser);
+        verifyNoInteractions(userServiceClient);
+    }
+
+    @Test
+    void shareEntriesWithSingleLookups_When_BatchFetched() {
+        when(userServiceClient.fetchUser(1L)).thenReturn(Optional.of(firstUser));
+        when(userServiceClient.fetchUsers(List.of(2L))).thenReturn(List.of(secondUser));
+
+        assertThat(cacheableUserService.fetchUser(1L)).contains(firstUser);
+        assertThat(cacheableUserService.fetchUsers(List.of(1L, 2L))).containsExactlyInAnyOrder(firstUser, secondUser);
+        assertThat(cacheableUserService.fetchUser(2L)).contains(secondUser);
+
+        verify(userServiceClient, times(1)).fetchUser(1L);
+        verify(userServiceClient, times(1)).fetchUsers(List.of(2L));
+        verify(userServiceClient, never()).fetchUser(2L);
+    }
+
+    @Test
+    void serveMissingUserFromNegativeCache_When_LookedUpAgain() {
+        when(userServiceClient.fetchUser("ghost")).thenReturn(Optional.empty());
+
+        assertThat(cacheableUserService.fetchUser("ghost")).isEmpty();
+        assertThat(cacheableUserService.fetchUser("ghost")).isEmpty();
+
+        verify(userServiceClient, times(1)).fetchUser("ghost");
+        assertThat(cacheManager.getCache(USERS_CACHE).get("by_username:ghost")).isNull();
+        assertThat(cacheManager.getCache(MISSING_USERS_CACHE).get("by_username:ghost")).isNotNull();
+        assertThat(negativeHits()).isEqualTo(1);
+    }
+
+    @Test
+    void cacheFoundUserOnlyInPositiveCache_When_UserExists() {
+        when(userServiceClient.fetchUser(1L)).thenReturn(Optional.of(firstUser));
+
+        assertThat(cacheableUserService.fetchUser(1L)).contains(firstUser);
+        assertThat(cacheableUserService.fetchUser(1L)).contains(firstUser);
+
+        verify(userServiceClient, times(1)).fetchUser(1L);
+        assertThat(cacheManager.getCache(MISSING_USERS_CACHE).get("by_id:1")).isNull();
+    }
+
+    @Test
+    void skipKnownMissingUsersAndRememberNewOnes_When_BatchFetched() {
+        cacheManager.getCache(MISSING_USERS_CACHE).put("by_id:3", Optional.empty());
+        when(userServiceClient.fetchUsers(List.of(1L, 4L)))
+                .thenReturn(List.of(firstUser));
+
+        List<UserDto> result = cacheableUserService.fetchUsers(List.of(1L, 3L, 4L));
+
+        assertThat(result).containsExactly(firstUser);
+        assertThat(cacheManager.getCache(MISSING_USERS_CACHE).get("by_id:4")).isNotNull();
+        assertThat(cacheManager.getCache(USERS_CACHE).get("by_id:4")).isNull();
+        assertThat(negativeHits()).isEqualTo(1);
+    }
+
+    @Test
+    void evictUserAndRememberMissing_When_RefreshFindsUserDeleted() {
+        useCaches(TwoLevelCacheSpec.of(USERS_CACHE, 100, TTL, TTL).withRefreshAhead(TTL.multipliedBy(2)));
+        when(userServiceClient.fetchUser(1L)).thenReturn(Optional.of(firstUser), Optional.empty());
+
+        assertThat(cacheableUserService.fetchUser(1L)).contains(firstUser);
+        assertThat(cacheableUserService.fetchUser(1L)).contains(firstUser);
+        assertThat(cacheableUserService.fetchUser(1L)).isEmpty();
+
+        verify(userServiceClient, times(2)).fetchUser(1L);
+        assertThat(cacheManager.getCache(USERS_CACHE).get("by_id:1")).isNull();
+        assertThat(negativeHits()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.refreshes").tag("cache", USERS_CACHE).tag("result", "failure")
+                .counter().count()).isZero();
+    }
+
+    void useCaches(TwoLevelCacheSpec usersSpec) {
+        SimpleCacheManager simpleCacheManager = new SimpleCacheManager();
+        simpleCacheManager.setCaches(List.of(cache(usersSpec),
+                cache(TwoLevelCacheSpec.of(MISSING_USERS_CACHE, 100, TTL, TTL))));
+        simpleCacheManager.afterPropertiesSet();
+        cacheManager = simpleCacheManager;
+        cacheableUserService = new CacheableUserService(userServiceClient, cacheManager,
+                new BatchCacheInvoker(new SimpleCacheErrorHandler()), meterRegistry);
+    }
+
+    TwoLevelCache cache(TwoLevelCacheSpec spec) {
+        return new TwoLevelCache(spec, connectionFactory, RedisSerializer.json(), (_, _) -> {
+        }, Runnable::run, meterRegistry);
+    }
+
+    double negativeHits() {
+        return meterRegistry.get("cache.negative.hits").counter().count();
+    }
+
+}
@@ -0,0 +1,44 @@
+package kektor.innowise.gallery.image.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kektor.innowise.gallery.image.exception.UnsupportedSortException;
+import kektor.innowise.gallery.image.repository.FeedOrdering;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FeedSortPlannerTest {
+
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final FeedSortPlanner sortPlanner = new FeedSortPlanner(meterRegistry);
+
+    @Test
+    void appendIdTieBreaker_When_SortHasOnlyLeadingOrder() {
+        FeedOrdering ordering = sortPlanner.plan(Sort.by(Sort.Direction.ASC, "likesCount"), false);
+
+        assertThat(ordering).isEqualTo(FeedOrdering.LEAST_LIKED);
+        assertThat(ordering.sort()).isEqualTo(Sort.by(Sort.Order.asc("likesCount"), Sort.Order.asc("id")));
+    }
+
+    @Test
+    void planRecentOrdering_When_Unsorted() {
+        assertThat(sortPlanner.plan(Sort.unsorted(), true)).isEqualTo(FeedOrdering.RECENT);
+        assertThat(meterRegistry.counter(FeedSortPlanner.SORT_PLANS_METER,
+                "ordering", "RECENT", "index", "idx_images_user_recent_id").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void throwUnsupportedSortException_When_OrderingNotIndexBacked() {
+        assertThatThrownBy(() -> sortPlanner.plan(Sort.by("description"), false))
+                .isInstanceOf(UnsupportedSortException.class);
+        assertThatThrownBy(() -> sortPlanner.plan(Sort.by(Sort.Order.desc("uploadedAt"), Sort.Order.asc("id")), false))
+                .isInstanceOf(UnsupportedSortException.class);
+        assertThatThrownBy(() -> sortPlanner.plan(Sort.by(Sort.Order.desc("uploadedAt").ignoreCase()), false))
+                .isInstanceOf(UnsupportedSortException.class);
+        assertThat(meterRegistry.find(FeedSortPlanner.SORT_PLANS_METER).counters()).isEmpty();
+    }
+
+}
@@ -1,46 +1,65 @@
 package kektor.innowise.gallery.image.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import kektor.innowise.gallery.image.dto.ImageDeleted;
 import kektor.innowise.gallery.image.dto.ImageDto;
 import kektor.innowise.gallery.image.dto.KeySetScrollRequest;
+import kektor.innowise.gallery.image.dto.LikeStateDto;
 import kektor.innowise.gallery.image.dto.UpdateRequestDto;
 import kektor.innowise.gallery.image.dto.UploadRequestDto;
 import kektor.innowise.gallery.image.dto.UserDto;
 import kektor.innowise.gallery.image.exception.ImageNotFoundException;
 import kektor.innowise.gallery.image.exception.NonAuthorizedImageAccessException;
+import kektor.innowise.gallery.image.exception.UnsupportedSortException;
 import kektor.innowise.gallery.image.exception.UserNotFoundException;
 import kektor.innowise.gallery.image.mapper.ImageMapper;
 import kektor.innowise.gallery.image.model.Image;
 import kektor.innowise.gallery.image.model.Like;
+import kektor.innowise.gallery.image.repository.FeedOrdering;
 import kektor.innowise.gallery.image.repository.ImageRepository;
+import kektor.innowise.gallery.image.repository.ImageView;
+import kektor.innowise.gallery.image.repository.LikeChange;
 import kektor.innowise.gallery.image.repository.LikeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Window;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.time.temporal.ChronoUnit.DAYS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.times;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -60,6 +79,10 @@ public class ImageServiceTest {
     ApplicationEventPublisher eventPublisher;
     @Mock
     ImageMapper mapper;
+    @Mock
+    LikeCounterBuffer likeCounter;
+    @Spy
+    FeedSortPlanner sortPlanner = new FeedSortPlanner(new SimpleMeterRegistry());
 
     @InjectMocks
     ImageService imageService;
@@ -88,6 +111,11 @@ public class ImageServiceTest {
     }
 
 
+    ImageView imageView(boolean liked) {
+        return new ImageView(image.getId(), image.getUserId(), image.getS3key(), image.getDescription(),
+                image.getUploadedAt(), image.getLikesCount(), liked);
+    }
+
     @Test
     void saveImage_When_ValidUploadRequest() {
         when(securityService.currentUserId()).thenReturn(userId);
@@ -116,32 +144,74 @@ public class ImageServiceTest {
     }
 
     @Test
-    void returnImageDto_When_ImageExists() {
+    void removeUploadedObject_When_ImageInsertFails() {
         when(securityService.currentUserId()).thenReturn(userId);
-        when(imageRepository.findByIdExceptionally(1L))
+        when(s3Service.generateS3Key(multipartFile, userId))
+                .thenReturn("users/1/test-s3-key");
+        when(mapper.toModel(uploadRequestDto, 1L, "users/1/test-s3-key"))
                 .thenReturn(image);
+        when(imageRepository.save(image))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThatThrownBy(() -> imageService.save(uploadRequestDto))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        InOrder inOrder = inOrder(s3Service, imageRepository);
+        inOrder.verify(s3Service).uploadToS3(multipartFile, "users/1/test-s3-key");
+        inOrder.verify(imageRepository).save(image);
+        inOrder.verify(s3Service).deleteFromS3("users/1/test-s3-key");
+    }
+
+    @Test
+    void returnImageDto_When_ImageExists() {
+        when(securityService.currentUserId()).thenReturn(userId);
+        when(imageRepository.findViewByIdExceptionally(1L, 1L))
+                .thenReturn(imageView(true));
         when(s3Service.getSignedUrlForImage("users/1/test-s3-key"))
                 .thenReturn("https://s3.url/image.jpg");
         when(userServiceClient.fetchUser(image.getUserId()))
                 .thenReturn(Optional.of(new UserDto(1L, "testUsername", "testEmail")));
-        when(likeRepository.existsByImageIdAndUserId(1L, 1L))
-                .thenReturn(true);
         ImageDto expectedDto = new ImageDto(1L, 1L, "testUsername", "https://s3.url/image.jpg",
                 "Test description", image.getUploadedAt(), 5, true);
-        when(mapper.toDto(image, "testUsername", "https://s3.url/image.jpg", true))
+        when(mapper.toDto(imageView(true), "testUsername", "https://s3.url/image.jpg"))
                 .thenReturn(expectedDto);
 
         ImageDto result = imageService.getById(1L);
 
         assertThat(result).isEqualTo(expectedDto);
-        verify(imageRepository).findByIdExceptionally(1L);
+        verify(imageRepository).findViewByIdExceptionally(1L, 1L);
         verify(s3Service).getSignedUrlForImage("users/1/test-s3-key");
         verify(userServiceClient).fetchUser(1L);
     }
 
+    @Test
+    void overlayPendingLikes_When_LikeCounterHasUnflushedDelta() {
+        when(securityService.currentUserId()).thenReturn(userId);
+        when(imageRepository.findViewByIdExceptionally(1L, 1L))
+                .thenReturn(imageView(false));
+        when(s3Service.getSignedUrlForImage("users/1/test-s3-key"))
+                .thenReturn("https://s3.url/image.jpg");
+        when(userServiceClient.fetchUser(image.getUserId()))
+                .thenReturn(Optional.of(new UserDto(1L, "testUsername", "testEmail")));
+        ImageDto persistedDto = new ImageDto(1L, 1L, "testUsername", "https://s3.url/image.jpg",
+                "Test description", image.getUploadedAt(), 5, false);
+        ImageDto expectedDto = new ImageDto(1L, 1L, "testUsername", "https://s3.url/image.jpg",
+                "Test description", image.getUploadedAt(), 8, false);
+        when(mapper.toDto(imageView(false), "testUsername", "https://s3.url/image.jpg"))
+                .thenReturn(persistedDto);
+        when(likeCounter.pendingDelta(1L)).thenReturn(3L);
+        when(mapper.withLikesCount(persistedDto, 8))
+                .thenReturn(expectedDto);
+
+        ImageDto result = imageService.getById(1L);
+
+        assertThat(result).isEqualTo(expectedDto);
+    }
+
     @Test
     void throwImageNotFoundException_When_ImageDoesNotExist() {
-        when(imageRepository.findByIdExceptionally(100000L))
+        when(securityService.currentUserId()).thenReturn(userId);
+        when(imageRepository.findViewByIdExceptionally(100000L, 1L))
                 .thenThrow(new ImageNotFoundException(100000L));
 
         assertThatThrownBy(() -> imageService.getById(100000L))
@@ -151,8 +221,9 @@ public class ImageServiceTest {
 
     @Test
     void throwUserNotFoundException_When_UserDoesNotExist() {
-        when(imageRepository.findByIdExceptionally(1L))
-                .thenReturn(image);
+        when(securityService.currentUserId()).thenReturn(userId);
+        when(imageRepository.findViewByIdExceptionally(1L, 1L))
+                .thenReturn(imageView(false));
         when(s3Service.getSignedUrlForImage("users/1/test-s3-key"))
                 .thenReturn("https://s3.url/image.jpg");
         when(userServiceClient.fetchUser(image.getUserId()))
@@ -162,7 +233,7 @@ public class ImageServiceTest {
                 .isInstanceOf(UserNotFoundException.class)
                 .hasMessageContaining("User with id: %d not found".formatted(image.getUserId()));
 
-        verify(imageRepository).findByIdExceptionally(1L);
+        verify(imageRepository).findViewByIdExceptionally(1L, 1L);
         verify(s3Service).getSignedUrlForImage("users/1/test-s3-key");
         verify(userServiceClient).fetchUser(1L);
 
@@ -171,64 +242,68 @@ public class ImageServiceTest {
     @Test
     void returnWindowOfImages_When_GetAllWithValidScrollRequest() {
         KeySetScrollRequest scrollRequest = createScrollRequest(null);
-        Window<Image> imageWindow = createImageWindow();
+        Window<ImageView> imageWindow = createImageWindow();
 
         when(securityService.currentUserId()).thenReturn(userId);
-        when(imageRepository.findAllFilteredBy(
+        when(imageRepository.findAllViews(
+                null,
+                null,
+                userId,
                 scrollRequest.scrollPosition(),
-                scrollRequest.sort(),
+                FeedOrdering.RECENT.sort(),
                 scrollRequest.limit()))
                 .thenReturn(imageWindow);
-
-        when(likeRepository.findLikedImagesIdByUserFromSpecific(1L, List.of(1L, 2L)))
-                .thenReturn(Set.of(1L));
-        when(s3Service.getSignedUrlForImage(anyString()))
-                .thenReturn("https://s3.url/image.jpg");
-        when(userServiceClient.fetchUser(1L))
-                .thenReturn(Optional.of(new UserDto(1L, "testUsername", "testEmail")));
+        when(s3Service.getSignedUrlsForImages(anyCollection()))
+                .thenReturn(Map.of("users/1/test-s3-key", "https://s3.url/image.jpg"));
+        when(userServiceClient.fetchUsers(Set.of(1L)))
+                .thenReturn(List.of(new UserDto(1L, "testUsername", "testEmail")));
 
         Window<ImageDto> result = imageService.getAll(scrollRequest);
 
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(2);
-        verify(imageRepository).findAllFilteredBy(
+        verify(imageRepository).findAllViews(
+                null,
+                null,
+                userId,
                 scrollRequest.scrollPosition(),
-                scrollRequest.sort(),
+                FeedOrdering.RECENT.sort(),
                 scrollRequest.limit());
-        verify(userServiceClient, times(2)).fetchUser(1L);
+        verify(userServiceClient).fetchUsers(Set.of(1L));
     }
 
     @Test
     void returnWindowOfImagesForTheLast10Days_When_GetAllWithValidScrollRequest() {
         Instant last10Days = Instant.now().minus(10, DAYS);
         KeySetScrollRequest scrollRequest = createScrollRequest(last10Days);
-        Window<Image> imageWindow = createImageWindow();
+        Window<ImageView> imageWindow = createImageWindow();
 
         when(securityService.currentUserId()).thenReturn(userId);
-        when(imageRepository.findAllFilteredByUploadedAtAfter(
+        when(imageRepository.findAllViews(
+                null,
                 scrollRequest.tillDate(),
+                userId,
                 scrollRequest.scrollPosition(),
-                scrollRequest.sort(),
+                FeedOrdering.RECENT.sort(),
                 scrollRequest.limit()))
                 .thenReturn(imageWindow);
-
-        when(likeRepository.findLikedImagesIdByUserFromSpecific(1L, List.of(1L, 2L)))
-                .thenReturn(Set.of(1L));
-        when(s3Service.getSignedUrlForImage(anyString()))
-                .thenReturn("https://s3.url/image.jpg");
-        when(userServiceClient.fetchUser(1L))
-                .thenReturn(Optional.of(new UserDto(1L, "testUsername", "testEmail")));
+        when(s3Service.getSignedUrlsForImages(anyCollection()))
+                .thenReturn(Map.of("users/1/test-s3-key", "https://s3.url/image.jpg"));
+        when(userServiceClient.fetchUsers(Set.of(1L)))
+                .thenReturn(List.of(new UserDto(1L, "testUsername", "testEmail")));
 
         Window<ImageDto> result = imageService.getAll(scrollRequest);
 
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(2);
-        verify(imageRepository).findAllFilteredByUploadedAtAfter(
+        verify(imageRepository).findAllViews(
+                null,
                 scrollRequest.tillDate(),
+                userId,
                 scrollRequest.scrollPosition(),
-                scrollRequest.sort(),
+                FeedOrdering.RECENT.sort(),
                 scrollRequest.limit());
-        verify(userServiceClient, times(2)).fetchUser(1L);
+        verify(userServiceClient).fetchUsers(Set.of(1L));
     }
 
     @Test
@@ -236,35 +311,47 @@ public class ImageServiceTest {
         Instant last10Days = Instant.now().minus(10, DAYS);
         Long userId = 1L;
         KeySetScrollRequest scrollRequest = createScrollRequest(last10Days);
-        Window<Image> imageWindow = createImageWindow();
+        Window<ImageView> imageWindow = createImageWindow();
 
         when(securityService.currentUserId()).thenReturn(userId);
-        when(imageRepository.findAllFilteredByUserIdAndUploadedAtAfter(
+        when(imageRepository.findAllViews(
                 userId,
                 scrollRequest.tillDate(),
+                userId,
                 scrollRequest.scrollPosition(),
-                scrollRequest.sort(),
+                FeedOrdering.RECENT.sort(),
                 scrollRequest.limit()))
                 .thenReturn(imageWindow);
-
-        when(likeRepository.findLikedImagesIdByUserFromSpecific(1L, List.of(1L, 2L)))
-                .thenReturn(Set.of(1L));
-        when(s3Service.getSignedUrlForImage(anyString()))
-                .thenReturn("https://s3.url/image.jpg");
-        when(userServiceClient.fetchUser(1L))
-                .thenReturn(Optional.of(new UserDto(1L, "testUsername", "testEmail")));
+        when(s3Service.getSignedUrlsForImages(anyCollection()))
+                .thenReturn(Map.of("users/1/test-s3-key", "https://s3.url/image.jpg"));
+        when(userServiceClient.fetchUsers(Set.of(1L)))
+                .thenReturn(List.of(new UserDto(1L, "testUsername", "testEmail")));
 
         Window<ImageDto> result = imageService.getUserImages(userId, scrollRequest);
 
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(2);
-        verify(imageRepository).findAllFilteredByUserIdAndUploadedAtAfter(
+        verify(imageRepository).findAllViews(
                 userId,
                 scrollRequest.tillDate(),
+                userId,
                 scrollRequest.scrollPosition(),
-                scrollRequest.sort(),
+                FeedOrdering.RECENT.sort(),
                 scrollRequest.limit());
-        verify(userServiceClient, times(2)).fetchUser(1L);
+        verify(userServiceClient).fetchUsers(Set.of(1L));
+    }
+
+    @Test
+    void throwUnsupportedSortException_When_SortNotIndexBacked() {
+        KeySetScrollRequest scrollRequest = KeySetScrollRequest.builder()
+                .sort(Sort.by(Sort.Direction.ASC, "description"))
+                .limit(Limit.of(10))
+                .scrollPosition(ScrollPosition.keyset())
+                .build();
+
+        assertThatThrownBy(() -> imageService.getAll(scrollRequest))
+                .isInstanceOf(UnsupportedSortException.class);
+        verifyNoInteractions(imageRepository);
     }
 
     @Test
@@ -325,29 +412,95 @@ public class ImageServiceTest {
                 .thenReturn(Optional.empty());
         when(mapper.toModel(1L, 1L))
                 .thenReturn(new Like());
-        when(imageRepository.findByIdExceptionally(1L))
-                .thenReturn(image);
+        when(imageRepository.findViewByIdExceptionally(1L, 1L))
+                .thenReturn(imageView(true));
         when(s3Service.getSignedUrlForImage("users/1/test-s3-key"))
                 .thenReturn("https://s3.url/image.jpg");
         when(userServiceClient.fetchUser(image.getUserId()))
                 .thenReturn(Optional.of(new UserDto(1L, "testUsername", "testEmail")));
-        when(likeRepository.existsByImageIdAndUserId(1L, 1L))
-                .thenReturn(true);
         ImageDto expectedDto = new ImageDto(1L, 1L, "testUsername", "https://s3.url/image.jpg",
                 "Test description", image.getUploadedAt(), 5, true);
-        when(mapper.toDto(image, "testUsername", "https://s3.url/image.jpg", true))
+        when(mapper.toDto(imageView(true), "testUsername", "https://s3.url/image.jpg"))
                 .thenReturn(expectedDto);
 
         ImageDto result = imageService.likeImage(1L);
 
         verify(likeRepository).save(any(Like.class));
-        verify(imageRepository).incrementLikes(1L);
+        verify(likeCounter).add(1L, 1);
         assertThat(result).isEqualTo(expectedDto);
-        verify(imageRepository).findByIdExceptionally(1L);
+        verify(imageRepository).findViewByIdExceptionally(1L, 1L);
         verify(s3Service).getSignedUrlForImage("users/1/test-s3-key");
         verify(userServiceClient).fetchUser(1L);
     }
 
+    @Test
+    void putLike_When_ImageNotLikedYet() {
+        when(securityService.currentUserId()).thenReturn(userId);
+        when(likeRepository.insertLike(1L, 1L))
+                .thenReturn(Optional.of(likeChange(true)));
+        when(likeCounter.pendingDelta(1L)).thenReturn(1L);
+
+        LikeStateDto result = imageService.putLike(1L);
+
+        assertThat(result).isEqualTo(new LikeStateDto(1L, 2L, 6, true, true));
+        verify(likeCounter).add(1L, 1);
+        verify(imageRepository, never()).findViewByIdExceptionally(any(), any());
+    }
+
+    @Test
+    void keepLikesCount_When_ImageAlreadyLiked() {
+        when(securityService.currentUserId()).thenReturn(userId);
+        when(likeRepository.insertLike(1L, 1L))
+                .thenReturn(Optional.of(likeChange(false)));
+
+        LikeStateDto result = imageService.putLike(1L);
+
+        assertThat(result).isEqualTo(new LikeStateDto(1L, 2L, 5, true, false));
+        verify(likeCounter, never()).add(any(), anyLong());
+    }
+
+    @Test
+    void removeLike_When_ImageLiked() {
+        when(securityService.currentUserId()).thenReturn(userId);
+        when(likeRepository.deleteLike(1L, 1L))
+                .thenReturn(Optional.of(likeChange(true)));
+        when(likeCounter.pendingDelta(1L)).thenReturn(-1L);
+
+        LikeStateDto result = imageService.removeLike(1L);
+
+        assertThat(result).isEqualTo(new LikeStateDto(1L, 2L, 4, false, true));
+        verify(likeCounter).add(1L, -1);
+    }
+
+    @Test
+    void throwImageNotFoundException_When_LikingMissingImage() {
+        when(securityService.currentUserId()).thenReturn(userId);
+        when(likeRepository.insertLike(100000L, 1L))
+                .thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> imageService.putLike(100000L))
+                .isInstanceOf(ImageNotFoundException.class);
+    }
+
+    LikeChange likeChange(boolean changed) {
+        return new LikeChange() {
+            @Override
+            public Long getImageOwnerId() {
+                return 2L;
+            }
+
+            @Override
+            public Integer getLikesCount() {
+                return 5;
+            }
+
+            @Override
+            public Boolean getChanged() {
+                return changed;
+            }
+        };
+    }
+
     @Test
     void unlikeImage_When_LikeExists() {
         Like like = new Like();
@@ -355,29 +508,65 @@ public class ImageServiceTest {
         when(securityService.currentUserId()).thenReturn(userId);
         when(likeRepository.findIdByImageIdAndUserId(1L, 1L)).thenReturn(Optional.of(like));
         when(likeRepository.deleteLikeById(1L)).thenReturn(1);
-        when(imageRepository.findByIdExceptionally(1L))
-                .thenReturn(image);
+        when(imageRepository.findViewByIdExceptionally(1L, 1L))
+                .thenReturn(imageView(false));
         when(s3Service.getSignedUrlForImage("users/1/test-s3-key"))
                 .thenReturn("https://s3.url/image.jpg");
         when(userServiceClient.fetchUser(image.getUserId()))
                 .thenReturn(Optional.of(new UserDto(1L, "testUsername", "testEmail")));
-        when(likeRepository.existsByImageIdAndUserId(1L, 1L))
-                .thenReturn(false);
         ImageDto expectedDto = new ImageDto(1L, 1L, "testUsername", "https://s3.url/image.jpg",
                 "Test description", image.getUploadedAt(), 5, false);
-        when(mapper.toDto(image, "testUsername", "https://s3.url/image.jpg", false))
+        when(mapper.toDto(imageView(false), "testUsername", "https://s3.url/image.jpg"))
                 .thenReturn(expectedDto);
 
         ImageDto result = imageService.likeImage(1L);
 
         verify(likeRepository).deleteLikeById(1L);
-        verify(imageRepository).decrementLikes(1L);
+        verify(likeCounter).add(1L, -1);
         assertThat(result).isEqualTo(expectedDto);
-        verify(imageRepository).findByIdExceptionally(1L);
+        verify(imageRepository).findViewByIdExceptionally(1L, 1L);
         verify(s3Service).getSignedUrlForImage("users/1/test-s3-key");
         verify(userServiceClient).fetchUser(1L);
     }
 
+    @Test
+    void resolveUsersAndUrlsConcurrently_When_EnrichingWindow() {
+        KeySetScrollRequest scrollRequest = createScrollRequest(null);
+        Window<ImageView> imageWindow = createImageWindow();
+        CountDownLatch urlSigningStarted = new CountDownLatch(1);
+        Authentication authentication = new TestingAuthenticationToken("user1", null);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        AtomicReference<Authentication> forkedAuthentication = new AtomicReference<>();
+
+        when(securityService.currentUserId()).thenReturn(userId);
+        when(imageRepository.findAllViews(
+                null,
+                null,
+                userId,
+                scrollRequest.scrollPosition(),
+                FeedOrdering.RECENT.sort(),
+                scrollRequest.limit()))
+                .thenReturn(imageWindow);
+        when(s3Service.getSignedUrlsForImages(anyCollection())).thenAnswer(_ -> {
+            urlSigningStarted.countDown();
+            return Map.of("users/1/test-s3-key", "https://s3.url/image.jpg");
+        });
+        when(userServiceClient.fetchUsers(Set.of(1L))).thenAnswer(_ -> {
+            forkedAuthentication.set(SecurityContextHolder.getContext().getAuthentication());
+            assertThat(urlSigningStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            return List.of(new UserDto(1L, "testUsername", "testEmail"));
+        });
+
+        try {
+            Window<ImageDto> result = imageService.getAll(scrollRequest);
+
+            assertThat(result.getContent()).hasSize(2);
+            assertThat(forkedAuthentication.get()).isSameAs(authentication);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
     KeySetScrollRequest createScrollRequest(Instant tillDate) {
         Sort sort = Sort.by(Sort.Direction.DESC, "uploadedAt");
         Limit limit = Limit.of(10);
@@ -391,11 +580,11 @@ public class ImageServiceTest {
                 .build();
     }
 
-    Window<Image> createImageWindow() {
-        Image image1 = createTestImage();
+    Window<ImageView> createImageWindow() {
         Image image2 = createTestImage();
         image2.setId(2L);
-        List<Image> content = List.of(image1, image2);
+        List<ImageView> content = List.of(imageView(true), new ImageView(image2.getId(), image2.getUserId(),
+                image2.getS3key(), image2.getDescription(), image2.getUploadedAt(), image2.getLikesCount(), false));
         return Window.from(content, _ -> ScrollPosition.keyset());
     }
 
@@ -0,0 +1,113 @@
+package kektor.innowise.gallery.image.service;
+
+import kektor.innowise.gallery.image.repository.ImageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LikeCounterBufferTest {
+
+    @Mock
+    ImageRepository imageRepository;
+    @InjectMocks
+    LikeCounterBuffer likeCounter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(likeCounter, "flushBatchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void accumulatePendingDelta_When_LikesAdded() {
+        likeCounter.add(1L, 1);
+        likeCounter.add(1L, 1);
+        likeCounter.add(2L, -1);
+
+        assertThat(likeCounter.pendingDelta(1L)).isEqualTo(2);
+        assertThat(likeCounter.pendingDelta(2L)).isEqualTo(-1);
+        assertThat(likeCounter.pendingDelta(3L)).isZero();
+    }
+
+    @Test
+    void skipUpdate_When_DeltasCancelOut() {
+        likeCounter.add(1L, 1);
+        likeCounter.add(1L, -1);
+
+        likeCounter.flush();
+
+        verifyNoInteractions(imageRepository);
+    }
+
+    @Test
+    void flushInSortedBatches_When_DeltasPending() {
+        likeCounter.add(3L, 1);
+        likeCounter.add(1L, 2);
+        likeCounter.add(2L, -1);
+
+        likeCounter.flush();
+
+        verify(imageRepository).addLikes(new Long[]{1L, 2L}, new Long[]{2L, -1L});
+        verify(imageRepository).addLikes(new Long[]{3L}, new Long[]{1L});
+        assertThat(likeCounter.pendingDelta(1L)).isZero();
+        assertThat(likeCounter.pendingDelta(3L)).isZero();
+    }
+
+    @Test
+    void keepDeltas_When_FlushFails() {
+        likeCounter.add(1L, 2);
+        when(imageRepository.addLikes(any(), any())).thenThrow(new QueryTimeoutException("timeout"));
+
+        likeCounter.flush();
+
+        assertThat(likeCounter.pendingDelta(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void keepReportingDelta_When_FlushInProgress() {
+        likeCounter.add(1L, 2);
+        when(imageRepository.addLikes(any(), any())).thenAnswer(_ -> {
+            likeCounter.add(1L, 1);
+            assertThat(likeCounter.pendingDelta(1L)).isEqualTo(3);
+            return 1;
+        });
+
+        likeCounter.flush();
+
+        assertThat(likeCounter.pendingDelta(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void revertDelta_When_TransactionRolledBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        likeCounter.add(1L, 1);
+        assertThat(likeCounter.pendingDelta(1L)).isEqualTo(1);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(likeCounter.pendingDelta(1L)).isZero();
+    }
+
+}
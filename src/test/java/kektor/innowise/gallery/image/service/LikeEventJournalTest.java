@@ -0,0 +1,140 @@
+package kektor.innowise.gallery.image.service;
+
+import kektor.innowise.gallery.image.msg.LikeEventMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class LikeEventJournalTest {
+
+    static final DataSize SEGMENT_SIZE = DataSize.ofKilobytes(64);
+
+    @TempDir
+    Path directory;
+
+    LikeEventMessage event(Long imageId) {
+        return LikeEventMessage.builder()
+                .eventType(LikeEventMessage.EventType.REMOVE_LIKE)
+                .imageId(imageId)
+                .userId(7L)
+                .username("user7")
+                .instant(Instant.parse("2026-01-01T10:15:30.123456789Z"))
+                .imageOwnerId(3L)
+                .likesCount(41)
+                .build();
+    }
+
+    @Test
+    void replayInAppendOrder_When_Reopened() throws IOException {
+        Path file = directory.resolve("like-events.journal");
+        LikeEventJournal journal = new LikeEventJournal(file, SEGMENT_SIZE);
+        journal.append(1L, event(1L));
+        journal.append(2L, event(2L));
+        journal.append(3L, event(3L));
+        journal.close();
+
+        LikeEventJournal reopened = new LikeEventJournal(file, SEGMENT_SIZE);
+
+        assertThat(reopened.peek(10))
+                .extracting(LikeEventJournal.Entry::outboxId, LikeEventJournal.Entry::event)
+                .containsExactly(tuple(1L, event(1L)), tuple(2L, event(2L)), tuple(3L, event(3L)));
+        reopened.close();
+    }
+
+    @Test
+    void resetSegment_When_AllRecordsAcknowledged() throws IOException {
+        LikeEventJournal journal = new LikeEventJournal(directory.resolve("like-events.journal"), SEGMENT_SIZE);
+        journal.append(1L, event(1L));
+        journal.append(2L, event(2L));
+
+        List<LikeEventJournal.Entry> entries = journal.peek(10);
+        journal.acknowledge(entries.getFirst().nextPosition());
+
+        assertThat(journal.peek(10)).extracting(LikeEventJournal.Entry::event).containsExactly(event(2L));
+
+        journal.acknowledge(entries.getLast().nextPosition());
+        journal.append(3L, event(3L));
+
+        assertThat(journal.peek(10))
+                .containsExactly(new LikeEventJournal.Entry(3L, event(3L), entries.getFirst().nextPosition()));
+        journal.close();
+    }
+
+    @Test
+    void appendOnce_When_OutboxEventAlreadyHeld() throws IOException {
+        Path file = directory.resolve("like-events.journal");
+        LikeEventJournal journal = new LikeEventJournal(file, SEGMENT_SIZE);
+        journal.append(1L, event(1L));
+        journal.append(2L, event(2L));
+        journal.close();
+        LikeEventJournal reopened = new LikeEventJournal(file, SEGMENT_SIZE);
+
+        assertThat(reopened.append(1L, event(1L))).isTrue();
+        assertThat(reopened.peek(10)).extracting(LikeEventJournal.Entry::outboxId).containsExactly(1L, 2L);
+
+        reopened.acknowledge(reopened.peek(10).getFirst().nextPosition());
+        reopened.append(1L, event(1L));
+
+        assertThat(reopened.peek(10)).extracting(LikeEventJournal.Entry::outboxId).containsExactly(2L, 1L);
+        reopened.close();
+    }
+
+    @Test
+    void rejectAppend_When_SegmentFull() throws IOException {
+        LikeEventJournal journal = new LikeEventJournal(directory.resolve("like-events.journal"), DataSize.ofBytes(64));
+
+        assertThat(journal.append(1L, event(1L))).isTrue();
+        assertThat(journal.append(2L, event(2L))).isFalse();
+        assertThat(journal.peek(10)).hasSize(1);
+        journal.close();
+    }
+
+    @Test
+    void discardTornRecord_When_Recovering() throws IOException {
+        Path file = directory.resolve("like-events.journal");
+        LikeEventJournal journal = new LikeEventJournal(file, SEGMENT_SIZE);
+        journal.append(1L, event(1L));
+        journal.append(2L, event(2L));
+        long secondRecordEnd = journal.peek(10).getLast().nextPosition();
+        journal.close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0}), secondRecordEnd - 2);
+        }
+
+        LikeEventJournal reopened = new LikeEventJournal(file, SEGMENT_SIZE);
+
+        assertThat(reopened.peek(10)).extracting(LikeEventJournal.Entry::event).containsExactly(event(1L));
+        reopened.close();
+    }
+
+    @Test
+    void discardCorruptedRecord_When_Peeking() throws IOException {
+        Path file = directory.resolve("like-events.journal");
+        LikeEventJournal journal = new LikeEventJournal(file, SEGMENT_SIZE);
+        journal.append(1L, event(1L));
+        journal.append(2L, event(2L));
+        long secondRecordEnd = journal.peek(10).getLast().nextPosition();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0}), secondRecordEnd - 2);
+        }
+
+        assertThat(journal.peek(10)).extracting(LikeEventJournal.Entry::event).containsExactly(event(1L));
+
+        journal.append(3L, event(3L));
+
+        assertThat(journal.peek(10)).extracting(LikeEventJournal.Entry::event).containsExactly(event(1L), event(3L));
+        journal.close();
+    }
+
+}
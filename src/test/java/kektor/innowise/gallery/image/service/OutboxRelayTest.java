@@ -0,0 +1,180 @@
+package kektor.innowise.gallery.image.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kektor.innowise.gallery.image.model.OutboxEvent;
+import kektor.innowise.gallery.image.msg.LikeEventMessage;
+import kektor.innowise.gallery.image.repository.OutboxEventRepository;
+import kektor.innowise.gallery.security.UserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static kektor.innowise.gallery.image.service.BrokerEventService.Delivery.Status.FAILED;
+import static kektor.innowise.gallery.image.service.BrokerEventService.Delivery.Status.JOURNALED;
+import static kektor.innowise.gallery.image.service.BrokerEventService.Delivery.Status.SENT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTest {
+
+    @Mock
+    OutboxEventRepository outboxRepository;
+    @Mock
+    OutboxService outboxService;
+    @Mock
+    BrokerEventService brokerEventService;
+    @Mock
+    CommentServiceClient commentService;
+    @Spy
+    SimpleMeterRegistry meterRegistry;
+    @InjectMocks
+    OutboxRelay outboxRelay;
+
+    final LikeEventMessage likeEvent = LikeEventMessage.builder()
+            .eventType(LikeEventMessage.EventType.LIKE)
+            .imageId(10L)
+            .userId(1L)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 2);
+        ReflectionTestUtils.setField(outboxRelay, "lease", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(outboxRelay, "journaledLease", Duration.ofHours(1));
+        ReflectionTestUtils.setField(outboxRelay, "retryBackoff", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(outboxRelay, "maxRetryBackoff", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(outboxRelay, "maxAttempts", 3);
+    }
+
+    @Test
+    void deleteDispatchedEvents_When_CommentsDeletedAndLikeEventsAcknowledged() {
+        OutboxEvent like = outboxEvent(1L, OutboxEvent.Type.LIKE_EVENT, 10L);
+        OutboxEvent deleted = outboxEvent(2L, OutboxEvent.Type.IMAGE_DELETED, 20L);
+        when(outboxRepository.claim(any(), any(), anyInt()))
+                .thenReturn(List.of(like, deleted))
+                .thenReturn(List.of());
+        when(outboxService.readLikeEvent(like)).thenReturn(likeEvent);
+        when(brokerEventService.offer(1L, likeEvent)).thenReturn(true);
+        when(brokerEventService.pollDeliveries())
+                .thenReturn(List.of())
+                .thenReturn(List.of(new BrokerEventService.Delivery(1L, SENT)));
+
+        outboxRelay.relay();
+
+        verify(commentService).deleteImageComments(20L);
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(2L));
+        verify(outboxRepository, times(2)).claim(any(), any(), eq(2));
+
+        when(outboxRepository.claim(any(), any(), anyInt())).thenReturn(List.of());
+        outboxRelay.relay();
+
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L));
+        verify(outboxRepository, never()).reschedule(anyCollection(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void rescheduleFailedEvents_When_DispatchFails() {
+        OutboxEvent like = outboxEvent(1L, OutboxEvent.Type.LIKE_EVENT, 10L);
+        OutboxEvent deleted = outboxEvent(2L, OutboxEvent.Type.IMAGE_DELETED, 20L);
+        when(outboxRepository.claim(any(), any(), anyInt()))
+                .thenReturn(List.of(like, deleted))
+                .thenReturn(List.of());
+        when(outboxService.readLikeEvent(like)).thenReturn(likeEvent);
+        when(brokerEventService.offer(1L, likeEvent)).thenReturn(false);
+        when(brokerEventService.pollDeliveries()).thenReturn(List.of(new BrokerEventService.Delivery(3L, FAILED)));
+        doThrow(new ResourceAccessException("Comment service unavailable"))
+                .when(commentService).deleteImageComments(20L);
+
+        outboxRelay.relay();
+
+        verify(outboxRepository).reschedule(eq(List.of(3L)), any(), eq(1_000L), eq(300_000L));
+        verify(outboxRepository).reschedule(eq(List.of(1L, 2L)), any(), eq(1_000L), eq(300_000L));
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void deadLetterEventsAndCountThem_When_MaxAttemptsReached() {
+        when(outboxRepository.claim(any(), any(), anyInt())).thenReturn(List.of());
+        when(brokerEventService.pollDeliveries())
+                .thenReturn(List.of(new BrokerEventService.Delivery(5L, FAILED),
+                        new BrokerEventService.Delivery(6L, FAILED)));
+        when(outboxRepository.markFailed(eq(List.of(5L, 6L)), any(), eq(3))).thenReturn(1);
+
+        outboxRelay.relay();
+
+        verify(outboxRepository).reschedule(eq(List.of(5L, 6L)), any(), eq(1_000L), eq(300_000L));
+        assertThat(meterRegistry.get(OutboxRelay.FAILED_METER).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void keepJournaledEventsLeased_When_SpilledToJournal() {
+        when(outboxRepository.claim(any(), any(), anyInt())).thenReturn(List.of());
+        when(brokerEventService.pollDeliveries()).thenReturn(List.of(new BrokerEventService.Delivery(4L, JOURNALED)));
+        Instant before = Instant.now();
+
+        outboxRelay.relay();
+
+        ArgumentCaptor<Instant> leaseUntil = ArgumentCaptor.forClass(Instant.class);
+        verify(outboxRepository).extendLease(eq(List.of(4L)), leaseUntil.capture());
+        assertThat(leaseUntil.getValue()).isAfterOrEqualTo(before.plus(Duration.ofHours(1)));
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+        verify(outboxRepository, never()).reschedule(anyCollection(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void deleteCommentsAsDeletingUser_When_ImageDeletedEventRelayed() {
+        OutboxEvent deleted = outboxEvent(2L, OutboxEvent.Type.IMAGE_DELETED, 20L);
+        UserPrincipal user = mock(UserPrincipal.class);
+        when(outboxRepository.claim(any(), any(), anyInt()))
+                .thenReturn(List.of(deleted))
+                .thenReturn(List.of());
+        when(outboxService.readDeletedBy(deleted)).thenReturn(Optional.of(user));
+        AtomicReference<Authentication> authentication = new AtomicReference<>();
+        doAnswer(_ -> {
+            authentication.set(SecurityContextHolder.getContext().getAuthentication());
+            return null;
+        }).when(commentService).deleteImageComments(20L);
+
+        outboxRelay.relay();
+
+        assertThat(authentication.get().getPrincipal()).isSameAs(user);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(2L));
+    }
+
+    OutboxEvent outboxEvent(Long id, OutboxEvent.Type type, Long imageId) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setEventType(type);
+        event.setImageId(imageId);
+        return event;
+    }
+
+}
@@ -0,0 +1,126 @@
+package kektor.innowise.gallery.image.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kektor.innowise.gallery.image.model.OutboxEvent;
+import kektor.innowise.gallery.image.msg.LikeEventMessage;
+import kektor.innowise.gallery.image.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxServiceTest {
+
+    static final Duration COALESCING_WINDOW = Duration.ofSeconds(2);
+
+    @Mock
+    OutboxEventRepository outboxRepository;
+
+    SimpleMeterRegistry meterRegistry;
+    OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxService = new OutboxService(outboxRepository, new ObjectMapper().findAndRegisterModules(),
+                meterRegistry, COALESCING_WINDOW);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void delayLikeEvent_When_NoPendingEvent() {
+        when(outboxRepository.findPendingLikeEvent(eq(10L), eq(1L), any())).thenReturn(Optional.empty());
+        Instant before = Instant.now();
+
+        outboxService.likeEvent(likeEvent(LikeEventMessage.EventType.LIKE, 5));
+
+        OutboxEvent saved = savedEvent();
+        assertThat(saved.getEventType()).isEqualTo(OutboxEvent.Type.LIKE_EVENT);
+        assertThat(saved.getAvailableAt()).isAfterOrEqualTo(before.plus(COALESCING_WINDOW));
+        assertThat(suppressionRatio()).isZero();
+    }
+
+    @Test
+    void cancelPendingEvent_When_OppositeToggleWithinWindow() {
+        when(outboxRepository.findPendingLikeEvent(eq(10L), eq(1L), any())).thenReturn(Optional.empty());
+        outboxService.likeEvent(likeEvent(LikeEventMessage.EventType.LIKE, 5));
+        OutboxEvent pending = savedEvent();
+        when(outboxRepository.findPendingLikeEvent(eq(10L), eq(1L), any())).thenReturn(Optional.of(pending));
+
+        outboxService.likeEvent(likeEvent(LikeEventMessage.EventType.REMOVE_LIKE, 4));
+
+        verify(outboxRepository).delete(pending);
+        verify(outboxRepository, times(1)).save(any());
+        assertThat(suppressionRatio()).isEqualTo(1.0);
+    }
+
+    @Test
+    void keepLatestLikesCount_When_SameToggleWithinWindow() {
+        when(outboxRepository.findPendingLikeEvent(eq(10L), eq(1L), any())).thenReturn(Optional.empty());
+        outboxService.likeEvent(likeEvent(LikeEventMessage.EventType.LIKE, 5));
+        OutboxEvent pending = savedEvent();
+        when(outboxRepository.findPendingLikeEvent(eq(10L), eq(1L), any())).thenReturn(Optional.of(pending));
+
+        outboxService.likeEvent(likeEvent(LikeEventMessage.EventType.LIKE, 7));
+
+        verify(outboxRepository, never()).delete(any());
+        assertThat(outboxService.readLikeEvent(pending)).isEqualTo(likeEvent(LikeEventMessage.EventType.LIKE, 7));
+        assertThat(suppressionRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    void skipCoalescing_When_NoTransactionActive() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+
+        outboxService.likeEvent(likeEvent(LikeEventMessage.EventType.LIKE, 5));
+
+        verify(outboxRepository, never()).findPendingLikeEvent(any(), any(), any());
+        assertThat(savedEvent().getUserId()).isEqualTo(1L);
+    }
+
+    OutboxEvent savedEvent() {
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    double suppressionRatio() {
+        return meterRegistry.get(OutboxService.SUPPRESSION_RATIO_METER).gauge().value();
+    }
+
+    LikeEventMessage likeEvent(LikeEventMessage.EventType eventType, Integer likesCount) {
+        return LikeEventMessage.builder()
+                .eventType(eventType)
+                .imageId(10L)
+                .userId(1L)
+                .username("user1")
+                .instant(Instant.parse("2026-01-01T10:15:30Z"))
+                .imageOwnerId(3L)
+                .likesCount(likesCount)
+                .build();
+    }
+
+}
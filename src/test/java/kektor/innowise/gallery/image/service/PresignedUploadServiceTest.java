@@ -0,0 +1,202 @@
+package kektor.innowise.gallery.image.service;
+
+import kektor.innowise.gallery.image.dto.ImageDto;
+import kektor.innowise.gallery.image.dto.PresignedUploadDto;
+import kektor.innowise.gallery.image.dto.PresignedUploadRequestDto;
+import kektor.innowise.gallery.image.exception.ImageUploadNotFoundException;
+import kektor.innowise.gallery.image.exception.InvalidUploadRequestException;
+import kektor.innowise.gallery.image.mapper.ImageMapper;
+import kektor.innowise.gallery.image.model.ImageUpload;
+import kektor.innowise.gallery.image.repository.ImageUploadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PresignedUploadServiceTest {
+
+    @Mock
+    ImageUploadRepository uploadRepository;
+    @Mock
+    ImageService imageService;
+    @Mock
+    S3ImageService s3Service;
+    @Mock
+    SecurityService securityService;
+    @Mock
+    ImageMapper mapper;
+    @Spy
+    TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+
+    @InjectMocks
+    PresignedUploadService presignedUploadService;
+
+    final Long userId = 1L;
+    final String s3Key = "users/1/test-s3-key.png";
+    ImageUpload upload;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(presignedUploadService, "uploadTtl", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(presignedUploadService, "purgeBatchSize", 2);
+        ReflectionTestUtils.setField(presignedUploadService, "maxFileSize", DataSize.ofMegabytes(50));
+
+        upload = new ImageUpload();
+        upload.setId(5000L);
+        upload.setUserId(userId);
+        upload.setS3key(s3Key);
+        upload.setDescription("Test description");
+        upload.setContentType("image/png");
+        upload.setContentLength(1024L);
+        upload.setExpiresAt(Instant.now().plus(Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void returnPresignedUrl_When_ValidReserveRequest() throws MalformedURLException {
+        PresignedUploadRequestDto request = new PresignedUploadRequestDto("Test description", "test.png", "image/png", 1024L);
+        when(securityService.currentUserId()).thenReturn(userId);
+        when(s3Service.generateS3Key("test.png", userId)).thenReturn(s3Key);
+        when(mapper.toModel(eq(request), eq(userId), eq(s3Key), any(Instant.class))).thenReturn(upload);
+        when(uploadRepository.save(upload)).thenReturn(upload);
+        when(s3Service.createSignedUploadUrl(s3Key, "image/png", 1024L, Duration.ofMinutes(15)))
+                .thenReturn(URI.create("https://s3-signed-url.com/upload").toURL());
+
+        PresignedUploadDto result = presignedUploadService.reserve(request);
+
+        assertThat(result.uploadId()).isEqualTo(5000L);
+        assertThat(result.url()).isEqualTo("https://s3-signed-url.com/upload");
+        assertThat(result.method()).isEqualTo("PUT");
+        assertThat(result.headers()).containsEntry("Content-Type", "image/png");
+    }
+
+    @Test
+    void throwInvalidUploadRequest_When_DeclaredSizeExceedsLimit() {
+        PresignedUploadRequestDto request = new PresignedUploadRequestDto("Test description", "test.png", "image/png",
+                DataSize.ofMegabytes(51).toBytes());
+
+        assertThatThrownBy(() -> presignedUploadService.reserve(request))
+                .isInstanceOf(InvalidUploadRequestException.class);
+        verifyNoInteractions(uploadRepository, s3Service);
+    }
+
+    @Test
+    void saveImage_When_UploadedObjectMatchesReservation() {
+        ImageDto imageDto = new ImageDto(1L, userId, "testUsername", "https://s3.url/image.png",
+                "Test description", Instant.now(), 0, false);
+        when(securityService.currentUserId()).thenReturn(userId);
+        when(uploadRepository.findByIdAndUserId(5000L, userId)).thenReturn(Optional.of(upload));
+        when(s3Service.headObject(s3Key)).thenReturn(Optional.of(HeadObjectResponse.builder()
+                .contentLength(1024L)
+                .contentType("image/png")
+                .build()));
+        when(uploadRepository.claim(eq(5000L), any(Instant.class))).thenReturn(1);
+        when(imageService.saveClaimed(userId, s3Key, "Test description")).thenReturn(imageDto);
+
+        ImageDto result = presignedUploadService.complete(5000L);
+
+        assertThat(result).isEqualTo(imageDto);
+    }
+
+    @Test
+    void removeObject_When_UploadedObjectDoesNotMatchReservation() {
+        when(securityService.currentUserId()).thenReturn(userId);
+        when(uploadRepository.findByIdAndUserId(5000L, userId)).thenReturn(Optional.of(upload));
+        when(s3Service.headObject(s3Key)).thenReturn(Optional.of(HeadObjectResponse.builder()
+                .contentLength(4096L)
+                .contentType("image/png")
+                .build()));
+
+        assertThatThrownBy(() -> presignedUploadService.complete(5000L))
+                .isInstanceOf(InvalidUploadRequestException.class);
+        verify(s3Service).deleteFromS3(s3Key);
+        verify(uploadRepository, never()).claim(any(), any());
+    }
+
+    @Test
+    void throwImageUploadNotFound_When_ReservationExpired() {
+        upload.setExpiresAt(Instant.now().minusSeconds(1));
+        when(securityService.currentUserId()).thenReturn(userId);
+        when(uploadRepository.findByIdAndUserId(5000L, userId)).thenReturn(Optional.of(upload));
+
+        assertThatThrownBy(() -> presignedUploadService.complete(5000L))
+                .isInstanceOf(ImageUploadNotFoundException.class);
+        verifyNoInteractions(s3Service, imageService);
+    }
+
+    @Test
+    void throwImageUploadNotFound_When_ReservationAlreadyClaimed() {
+        when(securityService.currentUserId()).thenReturn(userId);
+        when(uploadRepository.findByIdAndUserId(5000L, userId)).thenReturn(Optional.of(upload));
+        when(s3Service.headObject(s3Key)).thenReturn(Optional.of(HeadObjectResponse.builder()
+                .contentLength(1024L)
+                .contentType("image/png")
+                .build()));
+        when(uploadRepository.claim(eq(5000L), any(Instant.class))).thenReturn(0);
+
+        assertThatThrownBy(() -> presignedUploadService.complete(5000L))
+                .isInstanceOf(ImageUploadNotFoundException.class);
+        verifyNoInteractions(imageService);
+        verify(s3Service, never()).deleteFromS3(any());
+    }
+
+    @Test
+    void removeObjectAfterRollback_When_ImageInsertFails() {
+        when(securityService.currentUserId()).thenReturn(userId);
+        when(uploadRepository.findByIdAndUserId(5000L, userId)).thenReturn(Optional.of(upload));
+        when(s3Service.headObject(s3Key)).thenReturn(Optional.of(HeadObjectResponse.builder()
+                .contentLength(1024L)
+                .contentType("image/png")
+                .build()));
+        when(uploadRepository.claim(eq(5000L), any(Instant.class))).thenReturn(1);
+        when(imageService.saveClaimed(userId, s3Key, "Test description"))
+                .thenThrow(new DataIntegrityViolationException("Insert failed"));
+
+        assertThatThrownBy(() -> presignedUploadService.complete(5000L))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        InOrder inOrder = inOrder(transactionOperations, s3Service);
+        inOrder.verify(transactionOperations).execute(any());
+        inOrder.verify(s3Service).deleteFromS3(s3Key);
+    }
+
+    @Test
+    void removeObjects_When_ExpiredReservationsPurged() {
+        when(uploadRepository.deleteExpired(any(Instant.class), anyInt()))
+                .thenReturn(List.of("users/1/a.png", "users/1/b.png"))
+                .thenReturn(List.of("users/2/c.png"));
+
+        presignedUploadService.purgeExpired();
+
+        verify(s3Service).deleteFromS3("users/1/a.png");
+        verify(s3Service).deleteFromS3("users/1/b.png");
+        verify(s3Service).deleteFromS3("users/2/c.png");
+    }
+
+}
@@ -1,27 +1,38 @@
 package kektor.innowise.gallery.image.service;
 
 import io.awspring.cloud.s3.S3Template;
+import kektor.innowise.gallery.image.cache.BatchCacheInvoker;
 import kektor.innowise.gallery.image.exception.ImageUploadException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleCacheErrorHandler;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.exception.SdkClientException;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URI;
-import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 
+import static kektor.innowise.gallery.image.conf.CacheConfig.URLS_CACHE;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,16 +40,28 @@ public class S3ImageServiceTest {
 
     @Mock
     S3Template s3Template;
+    @Mock
+    S3MultipartUploader multipartUploader;
+    @Mock
+    S3UrlPresigner urlPresigner;
+    @Mock
+    SignedUrlPolicy urlPolicy;
+    @Spy
+    ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(URLS_CACHE);
+    @Spy
+    BatchCacheInvoker cacheInvoker = new BatchCacheInvoker(new SimpleCacheErrorHandler());
     @InjectMocks
     S3ImageService s3ImageService;
 
     MultipartFile multipartFile;
     final String s3Key = "users/1/test-s3-key.jpeg";
+    final Instant signedAt = Instant.parse("2025-01-01T10:00:00Z");
 
     @BeforeEach
     void setUp() {
         multipartFile = new MockMultipartFile("image", "test.jpeg", "image/jpeg",
                 "test binary bytes".getBytes());
+        ReflectionTestUtils.setField(s3ImageService, "multipartThreshold", DataSize.ofBytes(32));
     }
 
     @Test
@@ -47,6 +70,27 @@ public class S3ImageServiceTest {
         verify(s3Template).upload(eq("images"), eq(s3Key), any(), any());
     }
 
+    @Test
+    void uploadInParts_When_FileExceedsMultipartThreshold() throws IOException {
+        multipartFile = new MockMultipartFile("image", "test.jpeg", "image/jpeg", new byte[64]);
+
+        s3ImageService.uploadToS3(multipartFile, s3Key);
+
+        verify(multipartUploader).upload(eq("images"), eq(s3Key), eq("image/jpeg"), any());
+        verifyNoInteractions(s3Template);
+    }
+
+    @Test
+    void throwImageUploadException_When_PartUploadFails() throws IOException {
+        multipartFile = new MockMultipartFile("image", "test.jpeg", "image/jpeg", new byte[64]);
+        doThrow(SdkClientException.create("S3 unavailable"))
+                .when(multipartUploader).upload(any(), any(), any(), any());
+
+        assertThatThrownBy(() -> s3ImageService.uploadToS3(multipartFile, s3Key))
+                .isInstanceOf(ImageUploadException.class)
+                .hasMessageContaining("Image upload failed (test.jpeg)");
+    }
+
     @Test
     void throwImageUploadException_When_IOExceptionOccurs() throws IOException {
         multipartFile = mock(MultipartFile.class);
@@ -59,16 +103,34 @@ public class S3ImageServiceTest {
     }
 
     @Test
-    void returnSignedUrl_When_ValidS3KeyProvided() throws MalformedURLException {
-        String uri = "https://s3-signed-url.com/image.jpeg";
-        URL url = URI.create(uri).toURL();
-        when(s3Template.createSignedGetURL(eq("images"), eq(s3Key), any()))
+    void returnSignedUrl_When_ValidS3KeyProvided() {
+        String url = "https://s3-signed-url.com/image.jpeg";
+        when(urlPolicy.signedAt()).thenReturn(signedAt);
+        when(urlPolicy.ttl()).thenReturn(Duration.ofHours(2));
+        when(urlPresigner.presignGetUrl("images", s3Key, signedAt, Duration.ofHours(2)))
                 .thenReturn(url);
 
         String result = s3ImageService.getSignedUrlForImage(s3Key);
 
-        assertThat(result).isEqualTo(uri);
-        verify(s3Template).createSignedGetURL(eq("images"), eq(s3Key), any());
+        assertThat(result).isEqualTo(url);
+    }
+
+    @Test
+    void signOnlyMissingUrlsInSingleBatch_When_SomeUrlsCached() {
+        String cachedKey = "users/1/cached.jpeg";
+        cacheManager.getCache(URLS_CACHE).put(cachedKey, "https://s3-signed-url.com/cached.jpeg");
+        when(urlPolicy.signedAt()).thenReturn(signedAt);
+        when(urlPolicy.ttl()).thenReturn(Duration.ofHours(2));
+        when(urlPresigner.presignGetUrls("images", List.of(s3Key), signedAt, Duration.ofHours(2)))
+                .thenReturn(Map.of(s3Key, "https://s3-signed-url.com/image.jpeg"));
+
+        Map<String, String> result = s3ImageService.getSignedUrlsForImages(List.of(s3Key, cachedKey, s3Key));
+
+        assertThat(result).containsOnly(
+                Map.entry(s3Key, "https://s3-signed-url.com/image.jpeg"),
+                Map.entry(cachedKey, "https://s3-signed-url.com/cached.jpeg"));
+        assertThat(cacheManager.getCache(URLS_CACHE).get(s3Key, String.class))
+                .isEqualTo("https://s3-signed-url.com/image.jpeg");
     }
 
     @Test
@@ -0,0 +1,165 @@
+package kektor.innowise.gallery.image.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import org.testcontainers.containers.localstack.LocalStackContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@Testcontainers
+public class S3MultipartUploaderIT {
+
+    static final String BUCKET = "multipart-test";
+    static final DataSize PART_SIZE = DataSize.ofMegabytes(5);
+
+    @Container
+    static LocalStackContainer localstack = new LocalStackContainer(
+            DockerImageName.parse("localstack/localstack:4.0"))
+            .withServices(LocalStackContainer.Service.S3);
+
+    static S3Client realClient;
+
+    S3Client s3Client;
+    S3MultipartUploader uploader;
+    String s3Key;
+
+    @BeforeAll
+    static void createBucket() {
+        realClient = S3Client.builder()
+                .endpointOverride(localstack.getEndpoint())
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(localstack.getAccessKey(), localstack.getSecretKey())))
+                .region(Region.of(localstack.getRegion()))
+                .forcePathStyle(true)
+                .build();
+        realClient.createBucket(request -> request.bucket(BUCKET));
+    }
+
+    @BeforeEach
+    void setUp() {
+        s3Client = spy(realClient);
+        uploader = new S3MultipartUploader(s3Client, PART_SIZE, 3, 4, 3);
+        s3Key = "users/1/" + UUID.randomUUID() + ".png";
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploader.shutdown();
+    }
+
+    @Test
+    void putSingleObject_When_ContentFitsOnePart() throws IOException {
+        byte[] content = randomBytes(1024);
+
+        uploader.upload(BUCKET, s3Key, "image/png", new ByteArrayInputStream(content));
+
+        assertThat(download()).isEqualTo(content);
+        verify(s3Client, never()).createMultipartUpload(any(Consumer.class));
+    }
+
+    @Test
+    void uploadPartsConcurrently_When_ContentExceedsPartSize() throws IOException {
+        byte[] content = randomBytes((int) PART_SIZE.toBytes() * 4 + 1234);
+
+        uploader.upload(BUCKET, s3Key, "image/png", new ByteArrayInputStream(content));
+
+        assertThat(download()).isEqualTo(content);
+        assertThat(realClient.headObject(request -> request.bucket(BUCKET).key(s3Key)).contentType())
+                .isEqualTo("image/png");
+        assertThat(realClient.listMultipartUploads(request -> request.bucket(BUCKET)).uploads()).isEmpty();
+    }
+
+    @Test
+    void retryOnlyFailedPart_When_PartUploadFailsTransiently() throws IOException {
+        byte[] content = randomBytes((int) PART_SIZE.toBytes() * 2 + 10);
+        failFirstPartUploadAttempt();
+
+        uploader.upload(BUCKET, s3Key, "image/png", new ByteArrayInputStream(content));
+
+        assertThat(download()).isEqualTo(content);
+        verify(s3Client, times(4)).uploadPart(any(Consumer.class), any(RequestBody.class));
+    }
+
+    @Test
+    void abortUpload_When_SourceStreamFails() {
+        InputStream failing = new SequenceInputStream(
+                new ByteArrayInputStream(randomBytes((int) PART_SIZE.toBytes() * 2)),
+                new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("Connection reset");
+                    }
+                });
+
+        assertThatThrownBy(() -> uploader.upload(BUCKET, s3Key, "image/png", failing))
+                .isInstanceOf(IOException.class);
+
+        assertThat(realClient.listMultipartUploads(request -> request.bucket(BUCKET)).uploads()).isEmpty();
+        assertThatThrownBy(this::download).isInstanceOf(NoSuchKeyException.class);
+    }
+
+    @Test
+    void abortUpload_When_PartRetriesExhausted() {
+        byte[] content = randomBytes((int) PART_SIZE.toBytes() * 2 + 10);
+        doThrow(SdkClientException.create("S3 unavailable"))
+                .when(s3Client).uploadPart(any(Consumer.class), any(RequestBody.class));
+
+        assertThatThrownBy(() -> uploader.upload(BUCKET, s3Key, "image/png", new ByteArrayInputStream(content)))
+                .isInstanceOf(SdkClientException.class);
+
+        assertThat(realClient.listMultipartUploads(request -> request.bucket(BUCKET)).uploads()).isEmpty();
+        assertThatThrownBy(this::download).isInstanceOf(NoSuchKeyException.class);
+    }
+
+    @Test
+    void rejectPartSize_When_BelowS3Minimum() {
+        assertThatThrownBy(() -> new S3MultipartUploader(s3Client, DataSize.ofMegabytes(4), 3, 4, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    void failFirstPartUploadAttempt() {
+        doThrow(SdkClientException.create("Connection reset"))
+                .doCallRealMethod()
+                .when(s3Client).uploadPart(any(Consumer.class), any(RequestBody.class));
+    }
+
+    byte[] download() {
+        return realClient.getObjectAsBytes(request -> request.bucket(BUCKET).key(s3Key)).asByteArray();
+    }
+
+    static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+}
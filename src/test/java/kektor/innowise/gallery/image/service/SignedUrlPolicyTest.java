@@ -0,0 +1,56 @@
+package kektor.innowise.gallery.image.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SignedUrlPolicyTest {
+
+    final Duration ttl = Duration.ofHours(2);
+
+    @Test
+    void alignSigningTimeToBucketStart_When_Bucketed() {
+        SignedUrlPolicy early = policyAt("2025-01-01T10:05:00Z", true);
+        SignedUrlPolicy late = policyAt("2025-01-01T10:59:59Z", true);
+
+        assertThat(early.signedAt()).isEqualTo(Instant.parse("2025-01-01T10:00:00Z"));
+        assertThat(late.signedAt()).isEqualTo(early.signedAt());
+        assertThat(policyAt("2025-01-01T11:00:00Z", true).signedAt())
+                .isEqualTo(Instant.parse("2025-01-01T11:00:00Z"));
+    }
+
+    @Test
+    void signAtCurrentTime_When_NotBucketed() {
+        SignedUrlPolicy policy = policyAt("2025-01-01T10:05:00Z", false);
+
+        assertThat(policy.signedAt()).isEqualTo(Instant.parse("2025-01-01T10:05:00Z"));
+    }
+
+    @Test
+    void cacheUntilBucketEnd_When_UrlSignedAtBucketStart() {
+        SignedUrlPolicy policy = policyAt("2025-01-01T10:45:00Z", true);
+        String url = "https://images.s3.amazonaws.com/users/1/a.png?X-Amz-Algorithm=AWS4-HMAC-SHA256"
+                + "&X-Amz-Date=20250101T100000Z&X-Amz-Expires=7200&X-Amz-SignedHeaders=host&X-Amz-Signature=abc";
+
+        assertThat(policy.cacheTtl(url)).isEqualTo(Duration.ofMinutes(15));
+    }
+
+    @Test
+    void expireImmediately_When_UrlPastItsCacheWindow() {
+        SignedUrlPolicy policy = policyAt("2025-01-01T11:30:00Z", true);
+        String url = "https://images.s3.amazonaws.com/users/1/a.png?X-Amz-Algorithm=AWS4-HMAC-SHA256"
+                + "&X-Amz-Date=20250101T100000Z&X-Amz-Expires=7200&X-Amz-SignedHeaders=host&X-Amz-Signature=abc";
+
+        assertThat(policy.cacheTtl(url)).isEqualTo(Duration.ofMillis(1));
+    }
+
+    SignedUrlPolicy policyAt(String now, boolean bucketed) {
+        return new SignedUrlPolicy(ttl, bucketed, Clock.fixed(Instant.parse(now), ZoneOffset.UTC));
+    }
+
+}
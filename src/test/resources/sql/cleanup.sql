@@ -1,2 +1,4 @@
 DELETE FROM gallery.likes;
-DELETE FROM gallery.images;
\ No newline at end of file
+DELETE FROM gallery.images;
+DELETE FROM gallery.image_uploads;
+DELETE FROM gallery.outbox_events;
\ No newline at end of file
@@ -0,0 +1,8 @@
+INSERT INTO gallery.images (id, user_id, description, s3key, uploaded_at, likes_count)
+SELECT n, n % 50, 'Benchmark image ' || n, 'users/' || (n % 50) || '/benchmark-' || n || '.jpeg',
+       NOW() - n * INTERVAL '1 minute', n % 17
+FROM generate_series(1, 2000) AS n;
+
+INSERT INTO gallery.likes (id, image_id, user_id)
+SELECT n, n, 1
+FROM generate_series(3, 2000, 3) AS n;